@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and writes the argument files passing large argument lists to scripts.
+ * <p>
+ * When the command line of a script grows over the {@link JBangOperation#argFileThreshold(int) threshold},
+ * its arguments are written to a temporary file, and the script receives a single
+ * {@code --jbang-argfile=<path>} argument instead. The file contains one argument per line, encoded in
+ * UTF-8, with backslashes, line feeds and carriage returns escaped as {@code \\}, {@code \n} and
+ * {@code \r}.
+ * <p>
+ * Scripts depending on this extension can restore their arguments with {@link #expand(String...)}:
+ * <pre>{@code
+ * public static void main(String[] args) {
+ *     args = ArgFile.expand(args);
+ * }}</pre>
+ * <p>
+ * A bare {@code @<path>} argument is not used, as JBang would expand it itself when launching the script,
+ * while {@code java} does not when the script is {@link JBangOperation#directLaunch(boolean) launched
+ * directly}.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+public final class ArgFile {
+
+    /**
+     * The prefix of the argument referencing an argument file.
+     */
+    public static final String PREFIX = "--jbang-argfile=";
+
+    private ArgFile() {
+        // no-op
+    }
+
+    /**
+     * Replaces the argument file references in an argument list with the arguments they contain.
+     *
+     * @param args the arguments
+     * @return the expanded arguments, or {@code args} if there was nothing to expand
+     * @throws UncheckedIOException if an argument file could not be read
+     */
+    public static String[] expand(String... args) {
+        var expanded = new ArrayList<String>(args.length);
+        var found = false;
+        for (var arg : args) {
+            if (arg.startsWith(PREFIX)) {
+                found = true;
+                try {
+                    expanded.addAll(read(Path.of(arg.substring(PREFIX.length()))));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                expanded.add(arg);
+            }
+        }
+        return found ? expanded.toArray(new String[0]) : args;
+    }
+
+    /**
+     * Reads the arguments of an argument file.
+     *
+     * @param file the argument file
+     * @return the arguments
+     * @throws IOException if the file could not be read
+     */
+    static List<String> read(Path file) throws IOException {
+        var args = new ArrayList<String>();
+        for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            var arg = new StringBuilder(line.length());
+            for (var i = 0; i < line.length(); i++) {
+                var c = line.charAt(i);
+                if (c == '\\' && i + 1 < line.length()) {
+                    c = line.charAt(++i);
+                    arg.append(c == 'n' ? '\n' : c == 'r' ? '\r' : c);
+                } else {
+                    arg.append(c);
+                }
+            }
+            args.add(arg.toString());
+        }
+        return args;
+    }
+
+    /**
+     * Writes arguments to a new temporary file.
+     *
+     * @param args the arguments
+     * @return the argument file, to be deleted by the caller
+     * @throws IOException if the file could not be written
+     */
+    static Path write(Collection<String> args) throws IOException {
+        var content = new StringBuilder();
+        for (var arg : args) {
+            for (var i = 0; i < arg.length(); i++) {
+                var c = arg.charAt(i);
+                switch (c) {
+                    case '\\' -> content.append("\\\\");
+                    case '\n' -> content.append("\\n");
+                    case '\r' -> content.append("\\r");
+                    default -> content.append(c);
+                }
+            }
+            content.append('\n');
+        }
+
+        var file = Files.createTempFile("jbang-args", ".txt");
+        try {
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+}
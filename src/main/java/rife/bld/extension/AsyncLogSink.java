@@ -0,0 +1,310 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import rife.bld.extension.tools.ObjectTools;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An {@link JBangOperation#outputConsumer(Consumer) output consumer} passing lines to a logger in
+ * batches, on a background thread.
+ * <p>
+ * Lines are queued without locking, so that the threads pumping the output of a script drain it as fast
+ * as the script writes, however slow the logging handlers are. A background thread, a virtual thread
+ * when the runtime supports them, takes the queued lines and logs each batch as a single record, joined
+ * with line separators. Chatty scripts can also be sampled, keeping one line out of a given number, or
+ * rate-limited, the lines over the limit being dropped and counted.
+ * <p>
+ * An {@link JBangOperation#execute() execution} waits for the queued lines of its script to be logged
+ * before completing. A sink can be shared between operations, and must be {@link #close() closed} once
+ * no longer used.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+public final class AsyncLogSink implements Consumer<String>, AutoCloseable {
+
+    private static final long BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100L);
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1L);
+    private final AtomicLong accepted_ = new AtomicLong();
+    private final AtomicLong dropped_ = new AtomicLong();
+    private final Level level_;
+    private final Logger logger_;
+    private final AtomicInteger pending_ = new AtomicInteger();
+    private final ConcurrentLinkedQueue<String> queue_ = new ConcurrentLinkedQueue<>();
+    private int batchSize_ = 1000;
+    private int capacity_ = 65536;
+    private volatile boolean closed_;
+    private volatile long processed_;
+    private int rateLimit_;
+    private int sampleRate_ = 1;
+    private volatile Thread thread_;
+    private volatile boolean waiting_;
+
+    /**
+     * Creates a sink logging lines at {@link Level#INFO INFO} level.
+     *
+     * @param logger the logger
+     * @throws NullPointerException if {@code logger} is null
+     */
+    public AsyncLogSink(@NonNull Logger logger) {
+        this(logger, Level.INFO);
+    }
+
+    /**
+     * Creates a sink logging lines at the given level.
+     *
+     * @param logger the logger
+     * @param level  the level
+     * @throws NullPointerException if {@code logger} or {@code level} is null
+     */
+    public AsyncLogSink(@NonNull Logger logger, @NonNull Level level) {
+        logger_ = ObjectTools.requireNonNull(logger, "logger");
+        level_ = ObjectTools.requireNonNull(level, "level");
+    }
+
+    /**
+     * Queues a line to be logged.
+     * <p>
+     * The calling thread only waits if the logger falls more than {@link #capacity(int) capacity} lines
+     * behind. Once the sink is closed, lines are logged directly.
+     *
+     * @param line the line
+     */
+    @Override
+    public void accept(String line) {
+        if (closed_) {
+            logger_.log(level_, line);
+            return;
+        }
+        start();
+        while (pending_.get() >= capacity_ && !closed_) {
+            LockSupport.parkNanos(BACKOFF_NANOS);
+        }
+        pending_.incrementAndGet();
+        accepted_.incrementAndGet();
+        queue_.add(line);
+        if (waiting_) {
+            LockSupport.unpark(thread_);
+        }
+    }
+
+    /**
+     * Sets the maximum number of lines logged as a single record.
+     * <p>
+     * Default is {@code 1000}
+     *
+     * @param lines the number of lines
+     * @return this sink
+     * @throws IllegalArgumentException if {@code lines} is not positive
+     */
+    public AsyncLogSink batchSize(int lines) {
+        if (lines <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        batchSize_ = lines;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of queued lines, over which the pumping threads wait for the logger.
+     * <p>
+     * Default is {@code 65536}
+     *
+     * @param lines the number of lines
+     * @return this sink
+     * @throws IllegalArgumentException if {@code lines} is not positive
+     */
+    public AsyncLogSink capacity(int lines) {
+        if (lines <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        capacity_ = lines;
+        return this;
+    }
+
+    /**
+     * Logs the queued lines, then stops the background thread.
+     * <p>
+     * The sink must not be closed while lines are still being accepted.
+     */
+    @Override
+    public void close() {
+        closed_ = true;
+        var thread = thread_;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of lines dropped by sampling or rate-limiting.
+     *
+     * @return the number of lines
+     */
+    public long dropped() {
+        return dropped_.get();
+    }
+
+    /**
+     * Waits for the lines queued so far to be logged.
+     *
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    public void flush() throws InterruptedException {
+        var target = accepted_.get();
+        while (processed_ < target && thread_ != null && thread_.isAlive()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            LockSupport.unpark(thread_);
+            LockSupport.parkNanos(BACKOFF_NANOS);
+        }
+    }
+
+    /**
+     * Sets the maximum number of lines logged per second.
+     * <p>
+     * The lines over the limit are dropped, and the number of dropped lines is logged once the next
+     * second begins. Default is {@code 0}, no limit
+     *
+     * @param linesPerSecond the number of lines, or {@code 0} for no limit
+     * @return this sink
+     * @throws IllegalArgumentException if {@code linesPerSecond} is negative
+     */
+    public AsyncLogSink rateLimit(int linesPerSecond) {
+        if (linesPerSecond < 0) {
+            throw new IllegalArgumentException("rateLimit must not be negative");
+        }
+        rateLimit_ = linesPerSecond;
+        return this;
+    }
+
+    /**
+     * Sets the sampling rate, keeping one line out of the given number.
+     * <p>
+     * Default is {@code 1}, every line is kept
+     *
+     * @param rate the number of lines per kept line
+     * @return this sink
+     * @throws IllegalArgumentException if {@code rate} is not positive
+     */
+    public AsyncLogSink sampleRate(int rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("sampleRate must be positive");
+        }
+        sampleRate_ = rate;
+        return this;
+    }
+
+    private void drain() {
+        var batch = new StringBuilder();
+        var sampled = 0L;
+        var windowStart = System.nanoTime();
+        var windowLines = 0;
+        var suppressed = 0L;
+        while (true) {
+            var line = queue_.poll();
+            if (line == null) {
+                if (suppressed > 0 && (closed_ || System.nanoTime() - windowStart >= WINDOW_NANOS)) {
+                    logger_.log(level_, suppressed(suppressed));
+                    suppressed = 0;
+                }
+                if (closed_ && queue_.isEmpty()) {
+                    return;
+                }
+                waiting_ = true;
+                if (queue_.isEmpty() && !closed_) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                waiting_ = false;
+                continue;
+            }
+
+            var count = 0;
+            var processed = processed_;
+            do {
+                pending_.decrementAndGet();
+                processed++;
+                if (sampled++ % sampleRate_ != 0) {
+                    dropped_.incrementAndGet();
+                    continue;
+                }
+                if (rateLimit_ > 0) {
+                    var now = System.nanoTime();
+                    if (now - windowStart >= WINDOW_NANOS) {
+                        if (suppressed > 0) {
+                            append(batch, suppressed(suppressed));
+                            suppressed = 0;
+                        }
+                        windowStart = now;
+                        windowLines = 0;
+                    }
+                    if (windowLines++ >= rateLimit_) {
+                        suppressed++;
+                        dropped_.incrementAndGet();
+                        continue;
+                    }
+                }
+                append(batch, line);
+                count++;
+            } while (count < batchSize_ && (line = queue_.poll()) != null);
+
+            if (!batch.isEmpty()) {
+                logger_.log(level_, batch.toString());
+                batch.setLength(0);
+            }
+            processed_ = processed;
+        }
+    }
+
+    private static void append(StringBuilder batch, String line) {
+        if (!batch.isEmpty()) {
+            batch.append(System.lineSeparator());
+        }
+        batch.append(line);
+    }
+
+    private static String suppressed(long lines) {
+        return "[" + lines + " lines suppressed by the rate limit]";
+    }
+
+    private void start() {
+        if (thread_ == null) {
+            synchronized (this) {
+                if (thread_ == null) {
+                    thread_ = ThreadSupport.start("jbang-log", this::drain);
+                }
+            }
+        }
+    }
+}
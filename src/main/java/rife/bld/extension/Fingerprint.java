@@ -0,0 +1,221 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes a SHA-256 fingerprint from strings and file contents.
+ * <p>
+ * Every value is length-prefixed, so that different sequences of values never produce the same
+ * fingerprint.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class Fingerprint {
+
+    private static final Map<File, Digest> DIGESTS = new ConcurrentHashMap<>();
+    private final byte[] buffer_ = new byte[8192];
+    private final MessageDigest digest_;
+
+    Fingerprint() {
+        try {
+            digest_ = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Adds a string value, {@code null} is distinct from the empty string.
+     *
+     * @param value the value
+     * @return this fingerprint
+     */
+    Fingerprint add(String value) {
+        if (value == null) {
+            addLength(-1);
+        } else {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            addLength(bytes.length);
+            digest_.update(bytes);
+        }
+        return this;
+    }
+
+    /**
+     * Adds all values of a collection, in iteration order.
+     *
+     * @param values the values
+     * @return this fingerprint
+     */
+    Fingerprint add(Collection<String> values) {
+        addLength(values.size());
+        for (var value : values) {
+            add(value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds all entries of a map, sorted by key.
+     *
+     * @param values the entries
+     * @return this fingerprint
+     */
+    Fingerprint add(Map<String, String> values) {
+        var sorted = new TreeMap<>(values);
+        addLength(sorted.size());
+        sorted.forEach((key, value) -> add(key).add(value));
+        return this;
+    }
+
+    /**
+     * Adds the contents of a file.
+     * <p>
+     * Directories are added recursively, including the relative path of each file, in sorted
+     * order. A missing file is recorded as such.
+     *
+     * @param file the file or directory
+     * @return this fingerprint
+     * @throws IOException if the file could not be read
+     */
+    Fingerprint add(File file) throws IOException {
+        if (file.isDirectory()) {
+            var root = file.toPath();
+            try (var paths = Files.walk(root)) {
+                var files = paths.filter(Files::isRegularFile).sorted().toList();
+                addLength(files.size());
+                for (var path : files) {
+                    add(root.relativize(path).toString().replace(File.separatorChar, '/'));
+                    addContent(path.toFile());
+                }
+            }
+        } else if (file.isFile()) {
+            addLength(-2);
+            addContent(file);
+        } else {
+            addLength(-3);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the contents of a classpath entry.
+     * <p>
+     * Directories are added like {@link #add(File) files}. The content digest of a jar is kept for as long as
+     * its size and modification time are unchanged, so that the jars on the classpath are only read again once
+     * they change.
+     *
+     * @param entry the jar or directory
+     * @return this fingerprint
+     * @throws IOException if the entry could not be read
+     */
+    Fingerprint addClasspathEntry(File entry) throws IOException {
+        if (!entry.isFile()) {
+            return add(entry);
+        }
+        var file = entry.getAbsoluteFile();
+        var modified = file.lastModified();
+        var size = file.length();
+        var digest = DIGESTS.get(file);
+        if (digest == null || digest.modified() != modified || digest.size() != size) {
+            digest = new Digest(modified, size, new Fingerprint().add(file).digest_.digest());
+            DIGESTS.put(file, digest);
+        }
+        addLength(-4);
+        digest_.update(digest.hash());
+        return this;
+    }
+
+    /**
+     * Adds the size and modification time of a file, instead of its contents.
+     * <p>
+     * Directories are added like {@link #add(File) files}, so that a changed file inside them is noticed.
+     *
+     * @param file the file or directory
+     * @return this fingerprint
+     * @throws IOException if a directory could not be read
+     */
+    Fingerprint addStamp(File file) throws IOException {
+        if (!file.isFile()) {
+            return add(file);
+        }
+        addLength(-5);
+        addLength(file.length());
+        addLength(file.lastModified());
+        return this;
+    }
+
+    /**
+     * Adds the contents of a script.
+     * <p>
+     * The {@link ScriptDirectives#hash() hash} of source scripts is added, covering the sources and files
+     * they include, and the contents of other scripts, such as jars.
+     *
+     * @param script the script file
+     * @return this fingerprint
+     * @throws IOException if the script or one of its sources could not be read
+     */
+    Fingerprint addScript(File script) throws IOException {
+        if (script.isFile() && ScriptDirectives.isSource(script)) {
+            return add(ScriptDirectives.of(script).hash());
+        }
+        return add(script);
+    }
+
+    /**
+     * Returns the fingerprint as a lowercase hexadecimal string.
+     * <p>
+     * The fingerprint must not be used after calling this method.
+     *
+     * @return the fingerprint
+     */
+    String hex() {
+        return HexFormat.of().formatHex(digest_.digest());
+    }
+
+    private void addContent(File file) throws IOException {
+        addLength(file.length());
+        try (var in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer_)) != -1) {
+                digest_.update(buffer_, 0, read);
+            }
+        }
+    }
+
+    private void addLength(long length) {
+        for (var i = 56; i >= 0; i -= 8) {
+            digest_.update((byte) (length >>> i));
+        }
+    }
+
+    private record Digest(long modified, long size, byte[] hash) {
+    }
+}
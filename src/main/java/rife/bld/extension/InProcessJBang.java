@@ -0,0 +1,211 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs JBang administrative subcommands inside the current JVM.
+ * <p>
+ * {@code jbang.jar} is loaded once per build into an isolated class loader, and its picocli
+ * command line is executed directly. The output consumer only receives what the command line writes to its
+ * own output and error writers, {@code System.out} and {@code System.err} being left untouched for the rest
+ * of the JVM. Commands run one at a time, and once a command timed out, later commands are run in a new
+ * process for as long as it keeps running.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class InProcessJBang {
+
+    /**
+     * The JBang subcommands that can be run in-process. Anything else may run a script.
+     */
+    static final Set<String> SUBCOMMANDS = Set.of("alias", "cache", "catalog", "config", "info", "init", "jdk",
+            "template", "trust", "version");
+
+    private static final Map<Path, ClassLoader> LOADERS = new ConcurrentHashMap<>();
+    private static final Object LOCK = new Object();
+    private static Thread abandoned_;
+
+    private InProcessJBang() {
+        // no-op
+    }
+
+    /**
+     * Finds {@code jbang.jar}, in the JBang home directory if specified, or next to the {@code jbang}
+     * executable found on the {@code PATH}.
+     *
+     * @param jBangHome the JBang home directory, may be {@code null}
+     * @return the jar, or {@code null} if it could not be found
+     */
+    static File findJar(File jBangHome) {
+        if (jBangHome != null) {
+            var jar = new File(new File(jBangHome, "bin"), "jbang.jar");
+            return jar.isFile() ? jar : null;
+        }
+
+        var path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        for (var dir : path.split(File.pathSeparator)) {
+            if (dir.isEmpty()) {
+                continue;
+            }
+            var exec = Path.of(dir, JBangOperation.isWindows() ? "jbang.cmd" : "jbang");
+            if (Files.isExecutable(exec)) {
+                try {
+                    var jar = exec.toRealPath().resolveSibling("jbang.jar").toFile();
+                    if (jar.isFile()) {
+                        return jar;
+                    }
+                } catch (IOException e) {
+                    // try the next entry
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines whether the JBang arguments are an administrative subcommand that can run in-process.
+     *
+     * @param jBangArgs the JBang arguments
+     * @return {@code true} if the first non-option argument is a supported subcommand, {@code false} otherwise
+     */
+    static boolean isSubcommand(List<String> jBangArgs) {
+        for (var arg : jBangArgs) {
+            if (!arg.startsWith("-")) {
+                return SUBCOMMANDS.contains(arg);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs a JBang command in-process.
+     *
+     * @param jar     the JBang jar
+     * @param args    the JBang arguments
+     * @param output  the consumer receiving the output lines, or {@code null} to write to the console
+     * @param timeout the timeout, or a negative duration to wait indefinitely
+     * @return the result, or {@code null} if a previous command timed out and is still running
+     * @throws ReflectiveOperationException if the JBang entry point could not be found
+     * @throws InterruptedException         if the calling thread was interrupted
+     */
+    static JBangResult run(File jar, List<String> args, Consumer<String> output, Duration timeout)
+            throws ReflectiveOperationException, InterruptedException {
+        var loader = LOADERS.computeIfAbsent(jar.toPath().toAbsolutePath(), InProcessJBang::newLoader);
+        var commandLine = commandLine(loader);
+        var setOut = commandLine.getClass().getMethod("setOut", PrintWriter.class);
+        var setErr = commandLine.getClass().getMethod("setErr", PrintWriter.class);
+        var execute = commandLine.getClass().getMethod("execute", String[].class);
+
+        synchronized (LOCK) {
+            if (abandoned_ != null && abandoned_.isAlive()) {
+                return null;
+            }
+            abandoned_ = null;
+
+            var lines = output == null ? null : new LineOutputStream(output, Charset.defaultCharset());
+            var writer = lines == null ? null
+                    : new PrintWriter(new OutputStreamWriter(lines, Charset.defaultCharset()), true);
+            var exitCode = new AtomicInteger(ExitStatusException.EXIT_FAILURE);
+            var failure = new AtomicReference<Throwable>();
+            try {
+                if (writer != null) {
+                    setOut.invoke(commandLine, writer);
+                    setErr.invoke(commandLine, writer);
+                }
+
+                var worker = ThreadSupport.start("jbang-in-process", () -> {
+                    Thread.currentThread().setContextClassLoader(loader);
+                    try {
+                        exitCode.set((Integer) execute.invoke(commandLine, (Object) args.toArray(new String[0])));
+                    } catch (InvocationTargetException e) {
+                        failure.set(e.getCause());
+                    } catch (IllegalAccessException | RuntimeException e) {
+                        failure.set(e);
+                    }
+                });
+
+                if (timeout.isNegative()) {
+                    worker.join();
+                } else {
+                    worker.join(Math.max(1L, timeout.toMillis()));
+                }
+                if (worker.isAlive()) {
+                    worker.interrupt();
+                    abandoned_ = worker;
+                    return new JBangResult(ExitStatusException.EXIT_FAILURE, true);
+                }
+            } finally {
+                if (writer != null) {
+                    writer.flush();
+                    lines.close();
+                }
+            }
+
+            if (failure.get() != null) {
+                if (output != null) {
+                    output.accept(String.valueOf(failure.get()));
+                }
+                return new JBangResult(ExitStatusException.EXIT_FAILURE, false);
+            }
+            return lines == null
+                    ? new JBangResult(exitCode.get(), false)
+                    : new JBangResult(exitCode.get(), false, lines.timeToFirstOutput(), lines.bytes(), null, -1L);
+        }
+    }
+
+    private static Object commandLine(ClassLoader loader) throws ReflectiveOperationException {
+        try {
+            return loader.loadClass("dev.jbang.cli.JBang").getMethod("getCommandLine").invoke(null);
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            return loader.loadClass("dev.jbang.Main").getMethod("getCommandLine").invoke(null);
+        }
+    }
+
+    private static ClassLoader newLoader(Path jar) {
+        try {
+            return new URLClassLoader("jbang", new URL[]{jar.toUri().toURL()}, ClassLoader.getPlatformClassLoader());
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import rife.bld.extension.tools.ObjectTools;
+import rife.bld.operations.AbstractOperation;
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs multiple {@link JBangOperation JBang operations} concurrently.
+ * <p>
+ * Each operation is executed as configured, with at most {@link #concurrency() concurrency}
+ * operations running at the same time. Once all operations have completed, the batch fails if
+ * any of them failed according to its own {@link JBangOperation#isExitOnFailure() exitOnFailure}
+ * setting, or timed out.
+ * <p>
+ * The operations must not be modified while the batch is executing.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+@SuppressFBWarnings(
+        value = "EI_EXPOSE_REP",
+        justification = "Builder pattern intentionally exposes mutable collections; callers may add to them directly"
+)
+public class JBangBatchOperation extends AbstractOperation<JBangBatchOperation> {
+
+    private static final Logger logger = Logger.getLogger(JBangBatchOperation.class.getName());
+    private final List<JBangOperation> operations_ = new ArrayList<>();
+    private int concurrency_ = Runtime.getRuntime().availableProcessors();
+    private List<JBangResult> results_ = List.of();
+
+    /**
+     * Performs the operation.
+     *
+     * @throws Exception           if an error occurs
+     * @throws ExitStatusException if any of the operations failed or timed out
+     */
+    @Override
+    public void execute() throws Exception {
+        results_ = List.of();
+        if (operations_.isEmpty()) {
+            return;
+        }
+
+        var operations = List.copyOf(operations_);
+        var tasks = new ArrayList<Callable<JBangResult>>(operations.size());
+        for (var op : operations) {
+            tasks.add(() -> launch(op));
+        }
+
+        var counter = new AtomicInteger();
+        var pool = Executors.newFixedThreadPool(Math.min(concurrency_, operations.size()), r -> {
+            var thread = new Thread(r, "jbang-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        var results = new ArrayList<JBangResult>(operations.size());
+        try {
+            for (var future : pool.invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ex ? ex : e;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        results_ = Collections.unmodifiableList(results);
+
+        ExitStatusException failure = null;
+        var failed = 0;
+        for (var i = 0; i < operations.size(); i++) {
+            try {
+                operations.get(i).checkResult(results.get(i));
+            } catch (ExitStatusException e) {
+                failed++;
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        if (failure != null) {
+            if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                logger.severe(failed + " of " + operations.size() + " JBang operations failed.");
+            }
+            throw failure;
+        }
+    }
+
+    /**
+     * Sets the maximum number of operations to run at the same time.
+     * <p>
+     * Default is the number of available processors
+     *
+     * @param concurrency the maximum number of concurrent operations
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code concurrency} is less than {@code 1}
+     */
+    public JBangBatchOperation concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        concurrency_ = concurrency;
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of operations to run at the same time.
+     *
+     * @return the maximum number of concurrent operations
+     */
+    public int concurrency() {
+        return concurrency_;
+    }
+
+    /**
+     * Adds operations to the batch.
+     *
+     * @param operations the operations to add
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code operations} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code operations} collection is {@code null}
+     */
+    public JBangBatchOperation operations(@NonNull Collection<JBangOperation> operations) {
+        operations_.addAll(ObjectTools.requireNotEmpty(operations, "operations"));
+        return this;
+    }
+
+    /**
+     * Adds operations to the batch.
+     *
+     * @param operations the operations to add
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code operations} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code operations} array is {@code null}
+     */
+    public JBangBatchOperation operations(@NonNull JBangOperation... operations) {
+        operations_.addAll(List.of(ObjectTools.requireNotEmpty(operations, "operations")));
+        return this;
+    }
+
+    /**
+     * Retrieves the live collection of operations in the batch.
+     * <p>
+     * The returned list is the operation's internal list. Callers may add to it directly;
+     * this is intentional by design (builder pattern).
+     *
+     * @return the mutable list of operations
+     */
+    public List<JBangOperation> operations() {
+        return operations_;
+    }
+
+    /**
+     * Retrieves the results of the last execution.
+     * <p>
+     * Results are in the same order as the {@link #operations() operations}. An operation that
+     * could not be started, for example because of an invalid working directory, is reported
+     * with a {@link ExitStatusException#EXIT_FAILURE failure} exit code.
+     *
+     * @return the unmodifiable list of results, empty if the batch has not been executed
+     */
+    public List<JBangResult> results() {
+        return results_;
+    }
+
+    private static JBangResult launch(JBangOperation op) throws Exception {
+        try {
+            return op.launch();
+        } catch (ExitStatusException e) {
+            return new JBangResult(e.getExitStatus(), false);
+        }
+    }
+}
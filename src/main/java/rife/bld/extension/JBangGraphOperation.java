@@ -0,0 +1,313 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import rife.bld.extension.tools.ObjectTools;
+import rife.bld.operations.AbstractOperation;
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs named {@link JBangOperation JBang operations} that depend on each other.
+ * <p>
+ * Each node starts as soon as all the nodes it depends on have completed, so independent nodes run
+ * concurrently, with at most {@link #concurrency() concurrency} nodes running at the same time. When a
+ * node fails according to its own {@link JBangOperation#isExitOnFailure() exitOnFailure} setting, or
+ * times out, all the nodes that depend on it, directly or not, are skipped. The other nodes still run.
+ * <p>
+ * Once all nodes have completed or been skipped, the critical path, the chain of dependent nodes that
+ * finished last, is logged with the duration of each node, and the graph fails if any node failed.
+ * <p>
+ * The operations must not be modified while the graph is executing.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+public class JBangGraphOperation extends AbstractOperation<JBangGraphOperation> {
+
+    private static final Logger logger = Logger.getLogger(JBangGraphOperation.class.getName());
+    private final Map<String, Node> nodes_ = new LinkedHashMap<>();
+    private int concurrency_ = Runtime.getRuntime().availableProcessors();
+    private List<String> criticalPath_ = List.of();
+    private Map<String, JBangResult> results_ = Map.of();
+
+    /**
+     * Performs the operation.
+     *
+     * @throws Exception           if an error occurs
+     * @throws ExitStatusException if a dependency is unknown or circular, or any of the nodes failed or timed out
+     */
+    @Override
+    public void execute() throws Exception {
+        results_ = Map.of();
+        criticalPath_ = List.of();
+        if (nodes_.isEmpty()) {
+            return;
+        }
+
+        var order = sort();
+        var counter = new AtomicInteger();
+        var pool = Executors.newFixedThreadPool(Math.min(concurrency_, nodes_.size()), r -> {
+            var thread = new Thread(r, "jbang-graph-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        var results = new ConcurrentHashMap<String, JBangResult>();
+        var timings = new ConcurrentHashMap<String, long[]>();
+        var failures = new ConcurrentHashMap<String, Exception>();
+        var futures = new HashMap<String, CompletableFuture<Boolean>>();
+        var start = System.nanoTime();
+        try {
+            for (var name : order) {
+                var node = nodes_.get(name);
+                var dependencies = node.dependencies().stream().map(futures::get).toList();
+                futures.put(name, CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                        .thenApplyAsync(v -> {
+                            if (!dependencies.stream().allMatch(CompletableFuture::join)) {
+                                return false;
+                            }
+                            var started = System.nanoTime();
+                            try {
+                                JBangResult result;
+                                try {
+                                    result = node.operation().launch();
+                                } catch (ExitStatusException e) {
+                                    result = new JBangResult(e.getExitStatus(), false);
+                                }
+                                results.put(name, result);
+                                node.operation().checkResult(result);
+                                return true;
+                            } catch (Exception e) {
+                                failures.put(name, e);
+                                return false;
+                            } finally {
+                                timings.put(name, new long[]{started - start, System.nanoTime() - start});
+                            }
+                        }, pool));
+            }
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        var ordered = new LinkedHashMap<String, JBangResult>();
+        for (var name : order) {
+            if (results.containsKey(name)) {
+                ordered.put(name, results.get(name));
+            }
+        }
+        results_ = Collections.unmodifiableMap(ordered);
+        criticalPath_ = criticalPath(timings);
+        if (!criticalPath_.isEmpty() && logger.isLoggable(Level.INFO) && !silent()) {
+            var path = new ArrayList<String>();
+            for (var name : criticalPath_) {
+                var timing = timings.get(name);
+                path.add(name + " (" + format(timing[1] - timing[0]) + ')');
+            }
+            logger.info("Critical path: " + String.join(" -> ", path) + ", "
+                    + format(timings.get(criticalPath_.get(criticalPath_.size() - 1))[1]) + " total");
+        }
+
+        if (!failures.isEmpty()) {
+            var skipped = nodes_.size() - timings.size();
+            if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                logger.severe(failures.size() + " of " + nodes_.size() + " JBang nodes failed"
+                        + (skipped > 0 ? ", " + skipped + " skipped." : "."));
+            }
+            for (var name : order) {
+                var failure = failures.get(name);
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum number of nodes to run at the same time.
+     * <p>
+     * Default is the number of available processors
+     *
+     * @param concurrency the maximum number of concurrent nodes
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code concurrency} is less than {@code 1}
+     */
+    public JBangGraphOperation concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        concurrency_ = concurrency;
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of nodes to run at the same time.
+     *
+     * @return the maximum number of concurrent nodes
+     */
+    public int concurrency() {
+        return concurrency_;
+    }
+
+    /**
+     * Retrieves the critical path of the last execution.
+     * <p>
+     * The critical path starts with a node that has no dependencies, and ends with the node that finished
+     * last. Each node is the dependency of the next one that finished last.
+     *
+     * @return the unmodifiable list of node names, empty if the graph has not been executed
+     */
+    public List<String> criticalPath() {
+        return criticalPath_;
+    }
+
+    /**
+     * Adds a node to the graph.
+     * <p>
+     * Dependencies may be added to the graph after the nodes that depend on them.
+     *
+     * @param name         the unique name of the node
+     * @param operation    the operation to run
+     * @param dependencies the names of the nodes that must complete before this one starts
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code name} is empty or already used, or a dependency is empty
+     * @throws NullPointerException     if any of the parameters is {@code null}
+     */
+    public JBangGraphOperation node(@NonNull String name, @NonNull JBangOperation operation,
+                                    @NonNull String... dependencies) {
+        ObjectTools.requireNotEmpty(name, "name");
+        ObjectTools.requireNonNull(operation, "operation");
+        ObjectTools.requireNonNull(dependencies, "dependencies");
+        for (var dependency : dependencies) {
+            ObjectTools.requireNotEmpty(dependency, "dependencies");
+        }
+        if (nodes_.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate node: " + name);
+        }
+        nodes_.put(name, new Node(operation, List.of(dependencies)));
+        return this;
+    }
+
+    /**
+     * Retrieves the names of the nodes in the graph, in the order they were added.
+     *
+     * @return the unmodifiable list of node names
+     */
+    public List<String> nodes() {
+        return List.copyOf(nodes_.keySet());
+    }
+
+    /**
+     * Retrieves the results of the last execution.
+     * <p>
+     * Results are keyed by node name, in an order where each node comes after its dependencies. Skipped
+     * nodes have no result. A node that could not be started, for example because of an invalid working
+     * directory, is reported with a {@link ExitStatusException#EXIT_FAILURE failure} exit code.
+     *
+     * @return the unmodifiable map of results, empty if the graph has not been executed
+     */
+    public Map<String, JBangResult> results() {
+        return results_;
+    }
+
+    private static String format(long nanos) {
+        return String.format(Locale.ROOT, "%.2f s", Duration.ofNanos(nanos).toMillis() / 1000d);
+    }
+
+    private List<String> criticalPath(Map<String, long[]> timings) {
+        String last = null;
+        for (var entry : timings.entrySet()) {
+            if (last == null || entry.getValue()[1] > timings.get(last)[1]) {
+                last = entry.getKey();
+            }
+        }
+
+        var path = new ArrayList<String>();
+        while (last != null) {
+            path.add(0, last);
+            String previous = null;
+            for (var dependency : nodes_.get(last).dependencies()) {
+                var timing = timings.get(dependency);
+                if (timing != null && (previous == null || timing[1] > timings.get(previous)[1])) {
+                    previous = dependency;
+                }
+            }
+            last = previous;
+        }
+        return Collections.unmodifiableList(path);
+    }
+
+    private List<String> sort() throws ExitStatusException {
+        var pending = new HashMap<String, Integer>();
+        var dependents = new HashMap<String, List<String>>();
+        for (var entry : nodes_.entrySet()) {
+            for (var dependency : entry.getValue().dependencies()) {
+                if (!nodes_.containsKey(dependency)) {
+                    if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                        logger.severe("Unknown dependency of " + entry.getKey() + ": " + dependency);
+                    }
+                    throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+                }
+                dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(entry.getKey());
+            }
+            pending.put(entry.getKey(), entry.getValue().dependencies().size());
+        }
+
+        var ready = new ArrayDeque<String>();
+        nodes_.keySet().stream().filter(name -> pending.get(name) == 0).forEach(ready::add);
+        var order = new ArrayList<String>(nodes_.size());
+        while (!ready.isEmpty()) {
+            var name = ready.poll();
+            order.add(name);
+            for (var dependent : dependents.getOrDefault(name, List.of())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (order.size() != nodes_.size()) {
+            if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                var cycle = new ArrayList<>(nodes_.keySet());
+                cycle.removeAll(order);
+                logger.severe("Circular dependencies between: " + String.join(", ", cycle));
+            }
+            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+        }
+        return order;
+    }
+
+    private record Node(JBangOperation operation, List<String> dependencies) {
+    }
+}
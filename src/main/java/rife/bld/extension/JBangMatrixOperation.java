@@ -0,0 +1,335 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import rife.bld.extension.tools.ObjectTools;
+import rife.bld.operations.AbstractOperation;
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs one JBang script once per set of arguments, concurrently.
+ * <p>
+ * The script and its settings are taken from a {@link #operation(JBangOperation) template operation}.
+ * The script is built once before the shards start, so that they do not compete to compile it or
+ * resolve its dependencies. Each shard then runs with the template's {@link JBangOperation#args() arguments}
+ * followed by its own, with at most {@link #concurrency() concurrency} shards running at the same time.
+ * <p>
+ * The output of each shard is captured separately, and passed to the template's
+ * {@link JBangOperation#outputConsumer(java.util.function.Consumer) output consumer} one shard after the
+ * other, in the order of the {@link #args() argument sets}, once all shards have completed. Only the last
+ * {@link #maxOutputLines() maxOutputLines} lines of each shard are kept, so that memory stays bounded however
+ * much the shards write. Declared {@link JBangOperation#outputs() outputs} are ignored, since shards cannot
+ * share an up-to-date state. Templates reading their {@link JBangOperation#input(java.io.InputStream)
+ * input from a stream}, or setting an {@link JBangOperation#outputFile(java.io.File) output file},
+ * {@link JBangOperation#errorFile(java.io.File) error file} or
+ * {@link JBangOperation#errorConsumer(java.util.function.Consumer) error consumer}, are rejected, since the
+ * shards would share them while running concurrently.
+ * <p>
+ * Once all shards have completed, the matrix fails if any of them failed according to the template's
+ * {@link JBangOperation#isExitOnFailure() exitOnFailure} setting, or timed out.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+@SuppressFBWarnings(
+        value = "EI_EXPOSE_REP",
+        justification = "Builder pattern intentionally exposes mutable collections; callers may add to them directly"
+)
+public class JBangMatrixOperation extends AbstractOperation<JBangMatrixOperation> {
+
+    private static final Logger logger = Logger.getLogger(JBangMatrixOperation.class.getName());
+    private final List<List<String>> args_ = new ArrayList<>();
+    private int concurrency_ = Runtime.getRuntime().availableProcessors();
+    private int maxOutputLines_ = 10_000;
+    private JBangOperation operation_;
+    private List<List<String>> outputs_ = List.of();
+    private List<JBangResult> results_ = List.of();
+
+    /**
+     * Performs the operation.
+     *
+     * @throws Exception           if an error occurs
+     * @throws ExitStatusException if the template operation is missing, reads a stream, or sets an output file,
+     *                             error file or error consumer, or any of the shards failed or timed out
+     */
+    @Override
+    public void execute() throws Exception {
+        results_ = List.of();
+        outputs_ = List.of();
+        if (operation_ == null) {
+            if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                logger.severe("A JBang operation must be specified.");
+            }
+            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+        }
+        if (operation_.hasStreamedInput()) {
+            if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                logger.severe("The shards cannot share an input stream, use an input file instead.");
+            }
+            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+        }
+        if (operation_.outputFile() != null || operation_.errorFile() != null
+                || operation_.errorConsumer() != null) {
+            if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                logger.severe("The shards cannot share an output file, error file or error consumer, "
+                        + "use the output consumer instead.");
+            }
+            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+        }
+        if (args_.isEmpty()) {
+            return;
+        }
+
+        var template = operation_.copy();
+        if (template.script() != null) {
+            if (logger.isLoggable(Level.INFO) && !silent()) {
+                logger.info("Building " + template.script() + " for " + args_.size() + " shards.");
+            }
+            var built = template.isDirectLaunch() && template.scriptFile() != null
+                    ? LaunchCache.resolve(template, template.findJBangExec(), template.scriptFile()) != null
+                    : LaunchCache.build(template, template.findJBangExec(), template.script());
+            if (!built && logger.isLoggable(Level.WARNING) && !silent()) {
+                logger.warning("Could not build " + template.script() + ", running the shards anyway.");
+            }
+        }
+
+        var shards = new ArrayList<JBangOperation>(args_.size());
+        var outputs = new ArrayList<ShardOutput>(args_.size());
+        for (var args : args_) {
+            var lines = new ShardOutput(maxOutputLines_);
+            var shard = operation_.copy()
+                    .inheritIO(false)
+                    .outputConsumer(lines);
+            shard.outputs().clear();
+            shard.args().addAll(args);
+            shards.add(shard);
+            outputs.add(lines);
+        }
+
+        var batch = new JBangBatchOperation()
+                .concurrency(concurrency_)
+                .operations(shards)
+                .silent(silent());
+        try {
+            batch.execute();
+        } finally {
+            results_ = batch.results();
+            var lines = new ArrayList<List<String>>(outputs.size());
+            for (var output : outputs) {
+                lines.add(output.lines());
+            }
+            outputs_ = Collections.unmodifiableList(lines);
+            replay(outputs);
+        }
+    }
+
+    /**
+     * Adds an argument set, run as one shard.
+     *
+     * @param args the shard arguments
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code args} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code args} collection is {@code null}
+     */
+    public JBangMatrixOperation args(@NonNull Collection<String> args) {
+        args_.add(List.copyOf(ObjectTools.requireNotEmpty(args, "args")));
+        return this;
+    }
+
+    /**
+     * Adds an argument set, run as one shard.
+     *
+     * @param args the shard arguments
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code args} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code args} array is {@code null}
+     */
+    public JBangMatrixOperation args(@NonNull String... args) {
+        args_.add(List.of(ObjectTools.requireNotEmpty(args, "args")));
+        return this;
+    }
+
+    /**
+     * Retrieves the live collection of argument sets, one per shard.
+     * <p>
+     * The returned list is the operation's internal list. Callers may add to it directly;
+     * this is intentional by design (builder pattern).
+     *
+     * @return the mutable list of argument sets
+     */
+    public List<List<String>> args() {
+        return args_;
+    }
+
+    /**
+     * Sets the maximum number of shards to run at the same time.
+     * <p>
+     * Default is the number of available processors
+     *
+     * @param concurrency the maximum number of concurrent shards
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code concurrency} is less than {@code 1}
+     */
+    public JBangMatrixOperation concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        concurrency_ = concurrency;
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of shards to run at the same time.
+     *
+     * @return the maximum number of concurrent shards
+     */
+    public int concurrency() {
+        return concurrency_;
+    }
+
+    /**
+     * Sets the maximum number of output lines kept for each shard.
+     * <p>
+     * Once reached, the oldest lines of the shard are dropped, and their number is logged.
+     * <p>
+     * Default is {@code 10000}
+     *
+     * @param maxOutputLines the maximum number of lines per shard
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code maxOutputLines} is less than {@code 1}
+     */
+    public JBangMatrixOperation maxOutputLines(int maxOutputLines) {
+        if (maxOutputLines < 1) {
+            throw new IllegalArgumentException("maxOutputLines must be at least 1");
+        }
+        maxOutputLines_ = maxOutputLines;
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of output lines kept for each shard.
+     *
+     * @return the maximum number of lines per shard
+     */
+    public int maxOutputLines() {
+        return maxOutputLines_;
+    }
+
+    /**
+     * Sets the template operation, configuring the script and how it runs.
+     * <p>
+     * The template is copied when the matrix is executed, and is not modified.
+     *
+     * @param operation the template operation
+     * @return this operation instance
+     * @throws NullPointerException if {@code operation} is null
+     */
+    public JBangMatrixOperation operation(@NonNull JBangOperation operation) {
+        operation_ = ObjectTools.requireNonNull(operation, "operation");
+        return this;
+    }
+
+    /**
+     * Retrieves the template operation.
+     *
+     * @return the template operation, or {@code null} if not set
+     */
+    public JBangOperation operation() {
+        return operation_;
+    }
+
+    /**
+     * Retrieves the output lines of each shard of the last execution.
+     * <p>
+     * Outputs are in the same order as the {@link #args() argument sets}, and hold at most
+     * {@link #maxOutputLines() maxOutputLines} lines each.
+     *
+     * @return the unmodifiable list of output lines per shard, empty if the matrix has not been executed
+     */
+    public List<List<String>> outputs() {
+        return outputs_;
+    }
+
+    /**
+     * Retrieves the results of each shard of the last execution.
+     * <p>
+     * Results are in the same order as the {@link #args() argument sets}.
+     *
+     * @return the unmodifiable list of results, empty if the matrix has not been executed
+     * @see JBangBatchOperation#results()
+     */
+    public List<JBangResult> results() {
+        return results_;
+    }
+
+    private void replay(List<ShardOutput> outputs) {
+        var consumer = operation_.outputConsumer();
+        for (var i = 0; i < outputs.size(); i++) {
+            var output = outputs.get(i);
+            if (logger.isLoggable(Level.INFO) && !silent()) {
+                var omitted = output.omitted();
+                logger.info("Shard " + (i + 1) + " of " + outputs.size() + ": " + String.join(" ", args_.get(i))
+                        + (i < results_.size() ? " (exit code " + results_.get(i).exitCode() + ')' : "")
+                        + (omitted > 0 ? ", " + omitted + " earlier lines omitted" : ""));
+            }
+            outputs_.get(i).forEach(consumer);
+        }
+    }
+
+    /**
+     * Keeps the last output lines of a shard.
+     */
+    private static final class ShardOutput implements Consumer<String> {
+
+        private final Deque<String> lines_ = new ArrayDeque<>();
+        private final int maxLines_;
+        private long omitted_;
+
+        ShardOutput(int maxLines) {
+            maxLines_ = maxLines;
+        }
+
+        @Override
+        public synchronized void accept(String line) {
+            if (lines_.size() == maxLines_) {
+                lines_.removeFirst();
+                omitted_++;
+            }
+            lines_.addLast(line);
+        }
+
+        synchronized List<String> lines() {
+            return List.copyOf(lines_);
+        }
+
+        synchronized long omitted() {
+            return omitted_;
+        }
+    }
+}
@@ -19,16 +19,32 @@ package rife.bld.extension;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import rife.bld.BaseProject;
+import rife.bld.dependencies.Scope;
 import rife.bld.extension.tools.ObjectTools;
-import rife.bld.extension.tools.ProcessExecutor;
 import rife.bld.extension.tools.SystemTools;
 import rife.bld.operations.AbstractOperation;
 import rife.bld.operations.exceptions.ExitStatusException;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -45,77 +61,177 @@ import java.util.logging.Logger;
 public class JBangOperation extends AbstractOperation<JBangOperation> {
 
     private static final Logger logger = Logger.getLogger(JBangOperation.class.getName());
+    private static final long READINESS_POLL_MILLIS = 50L;
     private static final Consumer<String> defaultOutputConsumer = logger::info;
     private final List<String> args_ = new ArrayList<>();
+    private final List<File> classpath_ = new ArrayList<>();
     private final Map<String, String> env_ = new HashMap<>();
+    private final List<File> inputs_ = new ArrayList<>();
     private final List<String> jBangArgs_ = new ArrayList<>();
+    private final List<File> outputs_ = new ArrayList<>();
+    private final List<String> resultCacheEnv_ = new ArrayList<>();
+    private boolean appendOutput_;
+    private int argFileThreshold_;
+    private boolean asyncOutput_;
+    private File cacheDir_;
+    private boolean directLaunch_;
+    private Consumer<String> errorConsumer_;
+    private File errorFile_;
     private boolean exitOnFailure_ = true;
+    private boolean inProcess_;
     private boolean inheritIO_ = true;
+    private ScriptInput input_;
     private File jBangHome_;
+    private int outputBufferSize_ = 8192;
     @NonNull
     private Consumer<String> outputConsumer_ = defaultOutputConsumer;
+    private File outputFile_;
+    private ReadinessProbe readinessProbe_;
+    private Duration readinessTimeout_ = Duration.ofSeconds(60L);
+    private URI remoteCache_;
+    private boolean remoteCachePush_ = true;
+    private volatile JBangResult result_;
+    private boolean resultCache_;
+    private long resultCacheSize_ = 64L * 1024 * 1024;
     private String script_;
-    private long timeout_ = 600L;
+    private long serverIdleTimeout_ = 60L;
+    private boolean serverMode_;
+    private boolean startupCache_;
+    private int tailBytes_ = 64 * 1024;
+    private int tailLines_;
+    private Duration terminationGracePeriod_ = Duration.ofSeconds(5L);
+    private Duration timeout_ = Duration.ofSeconds(600L);
     private File workDir_;
 
     /**
      * Performs the operation
+     * <p>
+     * The {@link #result() result} of the execution remains available once it has completed.
      *
      * @throws Exception           if an error occurs
      * @throws ExitStatusException if workDir is null or invalid, JBang execution fails or times out
      */
     @Override
     public void execute() throws Exception {
-        if (workDir_ == null) {
-            if (logger.isLoggable(Level.SEVERE) && !silent()) {
-                logger.severe("A work dir must be specified.");
-            }
-            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
-        } else if (!workDir_.isDirectory()) {
-            if (logger.isLoggable(Level.SEVERE) && !silent()) {
-                logger.severe("Invalid working directory: " + workDir_.getAbsolutePath());
-            }
-            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
-        }
-
-        var command = new ArrayList<String>();
-        command.add(findJBangExec());
-        command.addAll(jBangArgs_);
-        if (script_ != null) {
-            command.add(script_);
-        }
-        command.addAll(args_);
+        checkResult(launch());
+    }
 
-        if (logger.isLoggable(Level.INFO) && !silent()) {
-            logger.info(String.join(" ", command));
-        }
+    /**
+     * Performs the operation asynchronously.
+     * <p>
+     * The process is waited on, and its output pumped, on background threads: virtual threads when
+     * the runtime supports them, daemon threads otherwise. This allows a build to start JBang scripts,
+     * keep doing other work, and join on them later.
+     * <p>
+     * The returned future completes exceptionally under the same conditions that {@link #execute()}
+     * fails, typically with an {@link ExitStatusException} wrapped in a {@link CompletionException}.
+     * The operation must not be modified until the future has completed.
+     *
+     * @return the future result of the execution
+     * @see #executeAsync(Executor)
+     * @since 1.3
+     */
+    public CompletableFuture<JBangResult> executeAsync() {
+        return executeAsync(ThreadSupport.executor());
+    }
 
-        var executor = new ProcessExecutor()
-                .command(command)
-                .workDir(workDir_)
-                .timeout(timeout_)
-                .inheritIO(inheritIO_);
+    /**
+     * Performs the operation asynchronously, waiting for the process on the given executor.
+     * <p>
+     * The process output is still pumped on a separate background thread.
+     *
+     * @param executor the executor used to launch and wait for the process
+     * @return the future result of the execution
+     * @throws NullPointerException if {@code executor} is null
+     * @see #executeAsync()
+     * @since 1.3
+     */
+    public CompletableFuture<JBangResult> executeAsync(@NonNull Executor executor) {
+        ObjectTools.requireNonNull(executor, "executor");
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                var result = launch();
+                checkResult(result);
+                return result;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
 
-        if (!env_.isEmpty()) {
-            executor.env(env_);
+    /**
+     * Starts the script in the background, and waits until it is ready.
+     * <p>
+     * The script is ready once its {@link #readinessProbe(ReadinessProbe) readiness probe} succeeds, or
+     * as soon as it is started if no probe is set. The returned process keeps running until it is
+     * {@link JBangProcess#stop() stopped}, or the build ends. The {@link #timeout() timeout}, the
+     * {@link #outputs() up-to-date check}, the {@link #resultCache(boolean) caches}, and the
+     * {@link #serverMode(boolean) server} and {@link #inProcess(boolean) in-process} modes do not apply
+     * to started scripts.
+     * <p>
+     * If the script exits, or is not ready within the {@link #readinessTimeout(Duration) readiness timeout},
+     * its processes are stopped and the operation fails.
+     *
+     * @return the running script
+     * @throws Exception           if an error occurs
+     * @throws ExitStatusException if workDir is null or invalid, or the script exited or was not ready in time
+     * @since 1.3
+     */
+    public JBangProcess start() throws Exception {
+        checkWorkDir();
+        var jBangExec = findJBangExec();
+        var scriptFile = scriptFile();
+        if (script_ != null) {
+            JBangWarmUpOperation.await(this, jBangExec, scriptFile);
         }
-
-        if (!inheritIO_) {
-            executor.outputConsumer(outputConsumer_);
+        LaunchCache.Launch launch = null;
+        if ((directLaunch_ || startupCache_) && scriptFile != null) {
+            launch = LaunchCache.resolve(this, jBangExec, scriptFile);
         }
 
-        var result = executor.execute();
+        var ready = new CountDownLatch(1);
+        var pattern = readinessProbe_ != null ? readinessProbe_.pattern() : null;
+        Consumer<String> output = pattern == null ? outputConsumer_ : line -> {
+            if (pattern.matcher(line).find()) {
+                ready.countDown();
+            }
+            outputConsumer_.accept(line);
+        };
+        var start = System.nanoTime();
+        var execution = process(jBangExec, launch, scriptFile, inheritIO_ && pattern == null, output).start();
 
-        if (result.timedOut()) {
-            if (logger.isLoggable(Level.SEVERE) && !silent()) {
-                logger.severe("JBang execution timed out after " + timeout_ + " seconds.");
+        var name = script_ != null ? script_ : "JBang";
+        try {
+            while (readinessProbe_ != null && ready.getCount() > 0 && !readinessProbe_.test(workDir_)) {
+                if (!execution.process().isAlive()) {
+                    result_ = execution.await();
+                    if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                        logger.severe(name + " exited with code " + result_.exitCode() + " before being ready.");
+                    }
+                    throw new ExitStatusException(result_.exitCode() == 0
+                            ? ExitStatusException.EXIT_FAILURE : result_.exitCode());
+                }
+                if (System.nanoTime() - start >= readinessTimeout_.toNanos()) {
+                    result_ = execution.terminate();
+                    if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                        logger.severe(name + " was not ready after " + format(readinessTimeout_) + ", waiting for "
+                                + readinessProbe_ + '.');
+                    }
+                    throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+                }
+                //noinspection ResultOfMethodCallIgnored
+                ready.await(READINESS_POLL_MILLIS, TimeUnit.MILLISECONDS);
             }
-            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+        } catch (InterruptedException e) {
+            execution.terminate();
+            throw e;
         }
 
-        if (exitOnFailure_ && !result.isSuccess()) {
-            ExitStatusException.throwOnFailure(result.exitCode());
+        var readyTime = Duration.ofNanos(System.nanoTime() - start);
+        if (logger.isLoggable(Level.INFO) && !silent()) {
+            logger.info(name + " is ready after " + readyTime.toMillis() + " ms.");
         }
+        return new JBangProcess(execution, readyTime);
     }
 
     /**
@@ -208,6 +324,59 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
         return SystemTools.isWindows();
     }
 
+    /**
+     * Configures whether the {@link #outputFile(File) output} and {@link #errorFile(File) error} files
+     * are appended to, rather than truncated.
+     * <p>
+     * Default is {@code false}
+     *
+     * @param appendOutput {@code true} to append to the files, {@code false} to truncate them
+     * @return this operation instance
+     * @since 1.3
+     */
+    public JBangOperation appendOutput(boolean appendOutput) {
+        appendOutput_ = appendOutput;
+        return this;
+    }
+
+    /**
+     * Sets the command line length over which the script arguments are passed in an argument file.
+     * <p>
+     * Very large argument lists, such as thousands of file paths, can exceed the limits of the operating
+     * system and slow down process creation. Once the command line is longer than this number of
+     * characters, the {@link #args() script arguments} are written to a temporary file, deleted when the
+     * script exits, and the script receives a single {@code --jbang-argfile=<path>} argument, expanded by
+     * {@link ArgFile#expand(String...)}.
+     * <p>
+     * Only enable this for scripts that expand the argument file, as other scripts would not receive their
+     * own arguments. The limits of the operating systems are about 2 MB on Linux and macOS, and 32K characters
+     * on Windows.
+     * <p>
+     * Default is {@code 0}, the arguments are always passed directly
+     *
+     * @param length the maximum command line length, or {@code 0} to always pass the arguments directly
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code length} is negative
+     * @since 1.3
+     */
+    public JBangOperation argFileThreshold(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("argFileThreshold must not be negative");
+        }
+        argFileThreshold_ = length;
+        return this;
+    }
+
+    /**
+     * Retrieves the command line length over which the script arguments are passed in an argument file.
+     *
+     * @return the maximum command line length, or {@code 0} if the arguments are always passed directly
+     * @since 1.3
+     */
+    public int argFileThreshold() {
+        return argFileThreshold_;
+    }
+
     /**
      * Sets the arguments to be used in the {@link #script(String) script}.
      *
@@ -246,6 +415,215 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
         return args_;
     }
 
+    /**
+     * Configures whether the output is logged asynchronously, in batches.
+     * <p>
+     * When not {@link #inheritIO(boolean) inheriting I/O} and using the default
+     * {@link #outputConsumer(Consumer) output consumer}, the output lines are passed to the logger by an
+     * {@link AsyncLogSink}, so that chatty scripts never wait on the logging handlers. The lines are
+     * still all logged before the execution completes.
+     * <p>
+     * To sample or rate-limit the output, set an {@code AsyncLogSink} as the output consumer instead.
+     * <p>
+     * Default is {@code false}
+     *
+     * @param asyncOutput {@code true} to log the output asynchronously, {@code false} otherwise
+     * @return this operation instance
+     * @since 1.3
+     */
+    public JBangOperation asyncOutput(boolean asyncOutput) {
+        asyncOutput_ = asyncOutput;
+        return this;
+    }
+
+    /**
+     * Sets the directory where cached JBang data, such as resolved launch information, is stored.
+     *
+     * @param dir the cache directory
+     * @return this operation instance
+     * @throws NullPointerException if {@code dir} is null
+     * @since 1.3
+     */
+    public JBangOperation cacheDirectory(@NonNull File dir) {
+        cacheDir_ = ObjectTools.requireNonNull(dir, "cacheDirectory");
+        return this;
+    }
+
+    /**
+     * Sets the directory where cached JBang data, such as resolved launch information, is stored.
+     *
+     * @param dir the cache directory
+     * @return this operation instance
+     * @throws NullPointerException if {@code dir} is null
+     * @since 1.3
+     */
+    public JBangOperation cacheDirectory(@NonNull Path dir) {
+        ObjectTools.requireNonNull(dir, "cacheDirectory");
+        cacheDir_ = dir.toFile();
+        return this;
+    }
+
+    /**
+     * Sets the directory where cached JBang data, such as resolved launch information, is stored.
+     *
+     * @param dir the cache directory path
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code dir} is empty
+     * @throws NullPointerException     if {@code dir} is null
+     * @since 1.3
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public JBangOperation cacheDirectory(@NonNull String dir) {
+        ObjectTools.requireNotEmpty(dir, "cacheDirectory");
+        cacheDir_ = new File(dir);
+        return this;
+    }
+
+    /**
+     * Retrieves the cache directory.
+     * <p>
+     * When not set, {@code build/jbang} under the {@link #workDir() work directory} is used.
+     *
+     * @return the cache directory, or {@code null} if not set
+     * @see #fromProject(BaseProject)
+     * @since 1.3
+     */
+    public File cacheDirectory() {
+        return cacheDir_;
+    }
+
+    /**
+     * Adds the classpath of a project, passed to the script with {@code --class-path}.
+     * <p>
+     * The compiled {@link BaseProject#buildMainDirectory() main classes} are added, followed by the
+     * {@link Scope#compile compile} and {@link Scope#provided provided} jars, or by the
+     * {@link BaseProject#srcMainResourcesDirectory() main resources} and the {@link Scope#compile compile}
+     * and {@link Scope#runtime runtime} jars. Scripts can then use the project's code and libraries without
+     * resolving them again, or packaging the project first.
+     *
+     * @param project the project
+     * @param scope   the scope of the classpath, either {@link Scope#compile compile} or
+     *                {@link Scope#runtime runtime}
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code scope} is neither {@code compile} nor {@code runtime}
+     * @throws NullPointerException     if {@code project} or {@code scope} is null
+     * @see #classpath()
+     * @since 1.3
+     */
+    public JBangOperation classpath(@NonNull BaseProject project, @NonNull Scope scope) {
+        ObjectTools.requireNonNull(project, "project");
+        ObjectTools.requireNonNull(scope, "scope");
+        if (scope != Scope.compile && scope != Scope.runtime) {
+            throw new IllegalArgumentException("scope must be compile or runtime");
+        }
+        classpath_.add(project.buildMainDirectory());
+        if (scope == Scope.compile) {
+            classpath_.addAll(project.compileClasspathJars());
+            classpath_.addAll(project.providedClasspathJars());
+        } else {
+            classpath_.add(project.srcMainResourcesDirectory());
+            classpath_.addAll(project.compileClasspathJars());
+            classpath_.addAll(project.runtimeClasspathJars());
+        }
+        return this;
+    }
+
+    /**
+     * Adds classpath entries, passed to the script with {@code --class-path}.
+     * <p>
+     * Relative paths are resolved against the {@link #workDir() work directory}.
+     *
+     * @param entries the jars or directories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code entries} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code entries} array is {@code null}
+     * @see #classpath()
+     * @since 1.3
+     */
+    public JBangOperation classpath(@NonNull File... entries) {
+        classpath_.addAll(List.of(ObjectTools.requireNotEmpty(entries, "classpath")));
+        return this;
+    }
+
+    /**
+     * Adds classpath entries, passed to the script with {@code --class-path}.
+     * <p>
+     * Relative paths are resolved against the {@link #workDir() work directory}.
+     *
+     * @param entries the jars or directories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code entries} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code entries} array is {@code null}
+     * @see #classpath()
+     * @since 1.3
+     */
+    public JBangOperation classpath(@NonNull Path... entries) {
+        for (var path : ObjectTools.requireNotEmpty(entries, "classpath")) {
+            classpath_.add(path.toFile());
+        }
+        return this;
+    }
+
+    /**
+     * Adds classpath entries, passed to the script with {@code --class-path}.
+     * <p>
+     * Relative paths are resolved against the {@link #workDir() work directory}.
+     *
+     * @param entries the jars or directories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code entries} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code entries} array is {@code null}
+     * @see #classpath()
+     * @since 1.3
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public JBangOperation classpath(@NonNull String... entries) {
+        for (var path : ObjectTools.requireNotEmpty(entries, "classpath")) {
+            classpath_.add(new File(path));
+        }
+        return this;
+    }
+
+    /**
+     * Retrieves the classpath entries passed to the script.
+     * <p>
+     * The entries are joined into a single {@code --class-path} JBang argument, following the
+     * {@link #jBangArgs() JBang arguments}, only when a {@link #script() script} is run, so that JBang
+     * subcommands, such as {@code cache clear}, are not affected. Their contents are part of the fingerprints of the
+     * {@link #resultCache(boolean) result cache} and of the {@link #outputs() up-to-date check}, so that
+     * scripts run again once the project is recompiled.
+     *
+     * @return the live list of classpath entries
+     * @since 1.3
+     */
+    public List<File> classpath() {
+        return classpath_;
+    }
+
+    /**
+     * Configures whether the script should be launched directly with {@code java}.
+     * <p>
+     * When enabled, the script's java executable, classpath and main class are resolved once through
+     * JBang and cached in the {@link #cacheDirectory() cache directory}, keyed by a fingerprint of the
+     * script and the {@link #jBangArgs() JBang arguments}. Later executions start {@code java} directly,
+     * skipping the JVM that the JBang launcher needs to start before running the script.
+     * <p>
+     * The script's own runtime options, declared with {@code //JAVA_OPTIONS}, {@code //RUNTIME_OPTIONS} or
+     * {@code //PREVIEW}, and the Java options passed as {@code -R}, {@code --runtime-option} or
+     * {@code --java-options} JBang arguments are passed on to {@code java}. Scripts that are not local files,
+     * that declare {@code //JAVAAGENT}, or that cannot be resolved, are run through JBang as usual.
+     * <p>
+     * Default is {@code false}
+     *
+     * @param directLaunch {@code true} to launch scripts directly, {@code false} otherwise
+     * @return this operation instance
+     * @since 1.3
+     */
+    public JBangOperation directLaunch(boolean directLaunch) {
+        directLaunch_ = directLaunch;
+        return this;
+    }
+
     /**
      * Adds an environment variable.
      * <p>
@@ -292,6 +670,104 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
         return env_;
     }
 
+    /**
+     * Sets a consumer to receive {@code stderr} lines when not inheriting I/O.
+     * <p>
+     * By default, {@code stderr} is merged into the {@link #outputConsumer(Consumer) output consumer}. With an
+     * error consumer, each stream is pumped on its own background thread, a virtual thread when the runtime
+     * supports them, so that error lines are never interleaved with output lines and can be handled as soon as
+     * they are written. Scripts are not run {@link #isInProcess() in-process} or in a
+     * {@link #isServerMode() server}, and their results are not {@link #isResultCache() cached}, as the streams
+     * would be merged.
+     * <p>
+     * Only called when {@link #isInheritIO()} is {@code false}, and {@code stderr} is not
+     * {@link #errorFile(File) redirected}.
+     *
+     * @param errorConsumer the error consumer, must not be null
+     * @return this operation instance
+     * @throws NullPointerException if errorConsumer is null
+     * @since 1.3
+     */
+    public JBangOperation errorConsumer(@NonNull Consumer<String> errorConsumer) {
+        ObjectTools.requireNonNull(errorConsumer, "errorConsumer");
+        errorConsumer_ = errorConsumer;
+        return this;
+    }
+
+    /**
+     * Retrieves the consumer receiving {@code stderr} lines when not inheriting I/O.
+     *
+     * @return the error consumer, or {@code null} if {@code stderr} is merged into the output consumer
+     * @since 1.3
+     */
+    public Consumer<String> errorConsumer() {
+        return errorConsumer_;
+    }
+
+    /**
+     * Redirects the script's {@code stderr} to a file.
+     * <p>
+     * The output is written to the file by the operating system, without passing through the current JVM
+     * or the {@link #outputConsumer(Consumer) output consumer}. The file is truncated unless
+     * {@link #appendOutput(boolean) appending}, and relative paths are resolved against the
+     * {@link #workDir() work directory}.
+     * <p>
+     * If it is the same file as the {@link #outputFile(File) output file}, both streams are merged into it.
+     * Otherwise, {@code stderr} is still inherited, or passed to the output consumer, as configured.
+     *
+     * @param file the error file
+     * @return this operation instance
+     * @throws NullPointerException if {@code file} is null
+     * @since 1.3
+     */
+    public JBangOperation errorFile(@NonNull File file) {
+        ObjectTools.requireNonNull(file, "errorFile");
+        errorFile_ = file;
+        return this;
+    }
+
+    /**
+     * Redirects the script's {@code stderr} to a file.
+     *
+     * @param file the error file
+     * @return this operation instance
+     * @throws NullPointerException if {@code file} is null
+     * @see #errorFile(File)
+     * @since 1.3
+     */
+    public JBangOperation errorFile(@NonNull Path file) {
+        ObjectTools.requireNonNull(file, "errorFile");
+        errorFile_ = file.toFile();
+        return this;
+    }
+
+    /**
+     * Redirects the script's {@code stderr} to a file.
+     *
+     * @param file the error file path
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code file} is empty
+     * @throws NullPointerException     if {@code file} is null
+     * @see #errorFile(File)
+     * @since 1.3
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public JBangOperation errorFile(@NonNull String file) {
+        ObjectTools.requireNotEmpty(file, "errorFile");
+        errorFile_ = new File(file);
+        return this;
+    }
+
+    /**
+     * Retrieves the file the script's {@code stderr} is redirected to.
+     *
+     * @return the error file, or {@code null} if not redirected
+     * @since 1.3
+     */
+    public File errorFile() {
+        return errorFile_;
+    }
+
     /**
      * Configures whether the operation should exit upon a JBang execution failure.
      * <p>
@@ -313,6 +789,8 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
      *     <li>{@link #workDir() workDir} to the project's directory, if not already set</li>
      *     <li>{@link #jBangHome() jBangHome} to the {@code JBANG_HOME} environment variable, if not
      *     already set. A caller-set value always takes precedence over the environment variable.</li>
+     *     <li>{@link #cacheDirectory() cacheDirectory} to {@code jbang} under the project's build
+     *     directory, if not already set</li>
      * </ul>
      *
      * @param project the project to configure the operation from
@@ -331,6 +809,41 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
                 jBangHome_ = new File(jbangHomeEnv);
             }
         }
+
+        if (cacheDir_ == null) {
+            cacheDir_ = new File(project.buildDirectory(), "jbang").getAbsoluteFile();
+        }
+        return this;
+    }
+
+    /**
+     * Configures whether JBang administrative subcommands run inside the current JVM.
+     * <p>
+     * When enabled, subcommands such as {@code trust}, {@code init}, {@code cache}, {@code info} or
+     * {@code version} load {@code jbang.jar} from the {@link #jBangHome() JBang home} {@code bin}
+     * directory, or from next to the {@code jbang} executable on the {@code PATH}, into an isolated class
+     * loader that is shared for the whole build, and call its entry point directly instead of starting
+     * the JBang launcher. When not {@link #isInheritIO() inheriting I/O}, the output the command writes
+     * through its command line is passed to the {@link #outputConsumer(Consumer) output consumer}, while
+     * messages JBang writes directly to {@code System.err} still reach the console, as the JVM's streams are
+     * never replaced.
+     * <p>
+     * In-process commands run one at a time. A command that times out cannot be stopped, so later
+     * commands start a new process until it completes.
+     * <p>
+     * Running a script always starts a new process. So do subcommands configured with
+     * {@link #env() environment variables}, a {@link #workDir() work directory} other than the current
+     * directory, an {@link #input(File) input}, or {@link #outputFile(File) output redirects}, which cannot be
+     * applied to the current JVM.
+     * <p>
+     * Default is {@code false}
+     *
+     * @param inProcess {@code true} to run administrative subcommands in-process, {@code false} otherwise
+     * @return this operation instance
+     * @since 1.3
+     */
+    public JBangOperation inProcess(boolean inProcess) {
+        inProcess_ = inProcess;
         return this;
     }
 
@@ -355,58 +868,284 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
     }
 
     /**
-     * Checks whether the operation is configured to exit upon a JBang execution failure.
+     * Feeds a file to the script's {@code stdin}.
      * <p>
-     * Default value is {@code true}
+     * The file is redirected to the process by the operating system, without being copied through the
+     * current JVM. Relative paths are resolved against the {@link #workDir() work directory}.
      *
-     * @return {@code true} if the operation is set to exit on failure, {@code false} otherwise.
+     * @param file the input file
+     * @return this operation instance
+     * @throws NullPointerException if {@code file} is null
+     * @since 1.3
      */
-    public boolean isExitOnFailure() {
-        return exitOnFailure_;
+    public JBangOperation input(@NonNull File file) {
+        ObjectTools.requireNonNull(file, "input");
+        input_ = ScriptInput.of(file);
+        return this;
     }
 
     /**
-     * Returns whether the child process inherits the I/O streams of the current JVM.
+     * Feeds a file to the script's {@code stdin}.
      *
-     * @return {@code true} if I/O is inherited (default), {@code false} if {@code stderr} is redirected
-     * to {@code stdout}
-     * @see #inheritIO(boolean)
+     * @param file the input file
+     * @return this operation instance
+     * @throws NullPointerException if {@code file} is null
+     * @see #input(File)
+     * @since 1.3
      */
-    public boolean isInheritIO() {
-        return inheritIO_;
+    public JBangOperation input(@NonNull Path file) {
+        ObjectTools.requireNonNull(file, "input");
+        input_ = ScriptInput.of(file.toFile());
+        return this;
     }
 
     /**
-     * Sets the arguments to be used when running the {@link #script(String) script}
+     * Feeds a stream to the script's {@code stdin}.
+     * <p>
+     * The stream is pumped into the process on a background thread, and closed once fully read. Since
+     * a stream can only be read once, it is consumed by the next execution of the operation.
      *
-     * @param args the arguments to use when running the script
+     * @param stream the input stream
      * @return this operation instance
-     * @throws IllegalArgumentException if the {@code args} elements are {@code null} or empty
-     * @throws NullPointerException     if the {@code args} collection is {@code null}
+     * @throws NullPointerException if {@code stream} is null
+     * @since 1.3
      */
-    public JBangOperation jBangArgs(@NonNull Collection<String> args) {
-        jBangArgs_.addAll(ObjectTools.requireNotEmpty(args, "jBangArgs"));
+    public JBangOperation input(@NonNull InputStream stream) {
+        ObjectTools.requireNonNull(stream, "input");
+        input_ = ScriptInput.of(stream);
         return this;
     }
 
     /**
-     * Sets one or more arguments to be used when running the script.
+     * Feeds generated buffers to the script's {@code stdin}.
+     * <p>
+     * The supplier is called on a background thread, until it returns {@code null}, and each buffer is
+     * written to the process before the next one is requested. When the script reads slower than the
+     * supplier produces, writing blocks, so no more than one buffer is held in memory at a time.
      *
-     * @param args the arguments to use when running the script
+     * @param buffers the buffer supplier
      * @return this operation instance
-     * @throws IllegalArgumentException if the {@code args} elements are {@code null} or empty
-     * @throws NullPointerException     if the {@code args} collection is {@code null}
+     * @throws NullPointerException if {@code buffers} is null
+     * @since 1.3
      */
-    public JBangOperation jBangArgs(@NonNull String... args) {
-        jBangArgs_.addAll(List.of(ObjectTools.requireNotEmpty(args, "jBangArgs")));
+    public JBangOperation input(@NonNull Supplier<ByteBuffer> buffers) {
+        ObjectTools.requireNonNull(buffers, "input");
+        input_ = ScriptInput.of(buffers);
         return this;
     }
 
     /**
-     * Retrieves the live collection of arguments to be used when running the script.
+     * Adds input files or directories read by the script.
      * <p>
-     * The returned list is the operation's internal list. Callers may add to it directly;
-     * this is intentional by design (builder pattern).
+     * Relative paths are resolved against the {@link #workDir() work directory}.
+     *
+     * @param inputs the input files or directories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code inputs} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code inputs} array is {@code null}
+     * @see #inputs()
+     * @since 1.3
+     */
+    public JBangOperation inputs(@NonNull File... inputs) {
+        inputs_.addAll(List.of(ObjectTools.requireNotEmpty(inputs, "inputs")));
+        return this;
+    }
+
+    /**
+     * Adds input files or directories read by the script.
+     * <p>
+     * Relative paths are resolved against the {@link #workDir() work directory}.
+     *
+     * @param inputs the input files or directories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code inputs} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code inputs} array is {@code null}
+     * @see #inputs()
+     * @since 1.3
+     */
+    public JBangOperation inputs(@NonNull Path... inputs) {
+        for (var path : ObjectTools.requireNotEmpty(inputs, "inputs")) {
+            inputs_.add(path.toFile());
+        }
+        return this;
+    }
+
+    /**
+     * Adds input files or directories read by the script.
+     * <p>
+     * Relative paths are resolved against the {@link #workDir() work directory}.
+     *
+     * @param inputs the input files or directories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code inputs} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code inputs} array is {@code null}
+     * @see #inputs()
+     * @since 1.3
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public JBangOperation inputs(@NonNull String... inputs) {
+        for (var path : ObjectTools.requireNotEmpty(inputs, "inputs")) {
+            inputs_.add(new File(path));
+        }
+        return this;
+    }
+
+    /**
+     * Retrieves the live collection of input files and directories.
+     * <p>
+     * The {@link #script() script} itself is always considered an input when it is a local file.
+     * The contents of all inputs are part of the fingerprint used to determine whether the operation
+     * is up-to-date.
+     *
+     * @return the mutable list of inputs
+     * @see #outputs()
+     * @since 1.3
+     */
+    public List<File> inputs() {
+        return inputs_;
+    }
+
+    /**
+     * Returns whether the output and error files are appended to.
+     *
+     * @return {@code true} if the files are appended to, {@code false} if they are truncated
+     * @see #appendOutput(boolean)
+     * @since 1.3
+     */
+    public boolean isAppendOutput() {
+        return appendOutput_;
+    }
+
+    /**
+     * Returns whether the output is logged asynchronously.
+     *
+     * @return {@code true} if the output is logged asynchronously, {@code false} otherwise
+     * @see #asyncOutput(boolean)
+     * @since 1.3
+     */
+    public boolean isAsyncOutput() {
+        return asyncOutput_;
+    }
+
+    /**
+     * Returns whether scripts are launched directly with {@code java}.
+     *
+     * @return {@code true} if scripts are launched directly, {@code false} otherwise
+     * @see #directLaunch(boolean)
+     * @since 1.3
+     */
+    public boolean isDirectLaunch() {
+        return directLaunch_;
+    }
+
+    /**
+     * Checks whether the operation is configured to exit upon a JBang execution failure.
+     * <p>
+     * Default value is {@code true}
+     *
+     * @return {@code true} if the operation is set to exit on failure, {@code false} otherwise.
+     */
+    public boolean isExitOnFailure() {
+        return exitOnFailure_;
+    }
+
+    /**
+     * Returns whether JBang administrative subcommands run inside the current JVM.
+     *
+     * @return {@code true} if administrative subcommands run in-process, {@code false} otherwise
+     * @see #inProcess(boolean)
+     * @since 1.3
+     */
+    public boolean isInProcess() {
+        return inProcess_;
+    }
+
+    /**
+     * Returns whether the child process inherits the I/O streams of the current JVM.
+     *
+     * @return {@code true} if I/O is inherited (default), {@code false} if {@code stderr} is redirected
+     * to {@code stdout}
+     * @see #inheritIO(boolean)
+     */
+    public boolean isInheritIO() {
+        return inheritIO_;
+    }
+
+    /**
+     * Returns whether results are uploaded to the remote cache.
+     *
+     * @return {@code true} if results are uploaded, {@code false} otherwise
+     * @see #remoteCachePush(boolean)
+     * @since 1.3
+     */
+    public boolean isRemoteCachePush() {
+        return remoteCachePush_;
+    }
+
+    /**
+     * Returns whether results are replayed from the result cache.
+     *
+     * @return {@code true} if the result cache is used, {@code false} otherwise
+     * @see #resultCache(boolean)
+     * @since 1.3
+     */
+    public boolean isResultCache() {
+        return resultCache_;
+    }
+
+    /**
+     * Returns whether scripts run in a reusable server JVM.
+     *
+     * @return {@code true} if scripts run in a server, {@code false} otherwise
+     * @see #serverMode(boolean)
+     * @since 1.3
+     */
+    public boolean isServerMode() {
+        return serverMode_;
+    }
+
+    /**
+     * Returns whether scripts record and use a startup archive.
+     *
+     * @return {@code true} if startup archives are used, {@code false} otherwise
+     * @see #startupCache(boolean)
+     * @since 1.3
+     */
+    public boolean isStartupCache() {
+        return startupCache_;
+    }
+
+    /**
+     * Sets the arguments to be used when running the {@link #script(String) script}
+     *
+     * @param args the arguments to use when running the script
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code args} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code args} collection is {@code null}
+     */
+    public JBangOperation jBangArgs(@NonNull Collection<String> args) {
+        jBangArgs_.addAll(ObjectTools.requireNotEmpty(args, "jBangArgs"));
+        return this;
+    }
+
+    /**
+     * Sets one or more arguments to be used when running the script.
+     *
+     * @param args the arguments to use when running the script
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code args} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code args} collection is {@code null}
+     */
+    public JBangOperation jBangArgs(@NonNull String... args) {
+        jBangArgs_.addAll(List.of(ObjectTools.requireNotEmpty(args, "jBangArgs")));
+        return this;
+    }
+
+    /**
+     * Retrieves the live collection of arguments to be used when running the script.
+     * <p>
+     * The returned list is the operation's internal list. Callers may add to it directly;
+     * this is intentional by design (builder pattern).
      *
      * @return the mutable list of JBang arguments
      */
@@ -415,116 +1154,804 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
     }
 
     /**
-     * Sets the JBang home directory.
+     * Sets the JBang home directory.
+     *
+     * @param jBangHome the JBang home directory
+     * @return this operation instance
+     * @throws NullPointerException     if {@code jBangHome} is null
+     * @throws IllegalArgumentException if {@code jBangHome} is empty
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public JBangOperation jBangHome(@NonNull String jBangHome) {
+        ObjectTools.requireNotEmpty(jBangHome, "jBangHome");
+        jBangHome_ = new File(jBangHome);
+        return this;
+    }
+
+    /**
+     * Sets the JBang home directory.
+     *
+     * @param jBangHome the JBang home directory
+     * @return this operation instance
+     * @throws NullPointerException if {@code jBangHome} is null
+     */
+    public JBangOperation jBangHome(@NonNull File jBangHome) {
+        ObjectTools.requireNonNull(jBangHome, "jBangHome");
+        jBangHome_ = jBangHome;
+        return this;
+    }
+
+    /**
+     * Sets the JBang home directory.
+     *
+     * @param jBangHome the JBang home directory
+     * @return this operation instance
+     * @throws NullPointerException if {@code jBangHome} is null
+     */
+    public JBangOperation jBangHome(@NonNull Path jBangHome) {
+        ObjectTools.requireNonNull(jBangHome, "jBangHome");
+        jBangHome_ = jBangHome.toFile();
+        return this;
+    }
+
+    /**
+     * Retrieves the JBang home directory.
+     *
+     * @return the JBang home directory
+     */
+    public File jBangHome() {
+        return jBangHome_;
+    }
+
+    /**
+     * Sets the size of the buffer used to read each output stream of the script, when not inheriting I/O.
+     * <p>
+     * Larger buffers drain scripts writing large amounts of output in fewer reads. Default is {@code 8192}
+     * bytes.
+     *
+     * @param size the buffer size in bytes
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code size} is not positive
+     * @since 1.3
+     */
+    public JBangOperation outputBufferSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("outputBufferSize must be positive");
+        }
+        outputBufferSize_ = size;
+        return this;
+    }
+
+    /**
+     * Retrieves the size of the buffer used to read each output stream of the script.
+     *
+     * @return the buffer size in bytes
+     * @since 1.3
+     */
+    public int outputBufferSize() {
+        return outputBufferSize_;
+    }
+
+    /**
+     * Sets a consumer to receive output lines when not inheriting I/O.
+     * <p>
+     * Only called when {@link #isInheritIO()} is {@code false}. Default logs at INFO level. Unless an
+     * {@link #errorConsumer(Consumer) error consumer} is set, {@code stderr} lines are received as well.
+     *
+     * @param outputConsumer the output consumer, must not be null
+     * @return this operation instance
+     * @throws NullPointerException if outputConsumer is null
+     */
+    public JBangOperation outputConsumer(@NonNull Consumer<String> outputConsumer) {
+        ObjectTools.requireNonNull(outputConsumer, "outputConsumer");
+        outputConsumer_ = outputConsumer;
+        return this;
+    }
+
+    /**
+     * Retrieves the consumer receiving output lines when not inheriting I/O.
+     *
+     * @return the output consumer
+     * @since 1.3
+     */
+    public Consumer<String> outputConsumer() {
+        return outputConsumer_;
+    }
+
+    /**
+     * Redirects the script's {@code stdout} to a file.
+     * <p>
+     * The output is written to the file by the operating system, without passing through the current JVM
+     * or the {@link #outputConsumer(Consumer) output consumer}. The file is truncated unless
+     * {@link #appendOutput(boolean) appending}, and relative paths are resolved against the
+     * {@link #workDir() work directory}.
+     * <p>
+     * Unless also {@link #errorFile(File) redirected}, {@code stderr} is still inherited, or passed to the
+     * output consumer, as configured.
+     *
+     * @param file the output file
+     * @return this operation instance
+     * @throws NullPointerException if {@code file} is null
+     * @since 1.3
+     */
+    public JBangOperation outputFile(@NonNull File file) {
+        ObjectTools.requireNonNull(file, "outputFile");
+        outputFile_ = file;
+        return this;
+    }
+
+    /**
+     * Redirects the script's {@code stdout} to a file.
+     *
+     * @param file the output file
+     * @return this operation instance
+     * @throws NullPointerException if {@code file} is null
+     * @see #outputFile(File)
+     * @since 1.3
+     */
+    public JBangOperation outputFile(@NonNull Path file) {
+        ObjectTools.requireNonNull(file, "outputFile");
+        outputFile_ = file.toFile();
+        return this;
+    }
+
+    /**
+     * Redirects the script's {@code stdout} to a file.
+     *
+     * @param file the output file path
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code file} is empty
+     * @throws NullPointerException     if {@code file} is null
+     * @see #outputFile(File)
+     * @since 1.3
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public JBangOperation outputFile(@NonNull String file) {
+        ObjectTools.requireNotEmpty(file, "outputFile");
+        outputFile_ = new File(file);
+        return this;
+    }
+
+    /**
+     * Retrieves the file the script's {@code stdout} is redirected to.
+     *
+     * @return the output file, or {@code null} if not redirected
+     * @since 1.3
+     */
+    public File outputFile() {
+        return outputFile_;
+    }
+
+    /**
+     * Adds output files or directories produced by the script.
+     * <p>
+     * Relative paths are resolved against the {@link #workDir() work directory}.
+     *
+     * @param outputs the output files or directories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code outputs} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code outputs} array is {@code null}
+     * @see #outputs()
+     * @since 1.3
+     */
+    public JBangOperation outputs(@NonNull File... outputs) {
+        outputs_.addAll(List.of(ObjectTools.requireNotEmpty(outputs, "outputs")));
+        return this;
+    }
+
+    /**
+     * Adds output files or directories produced by the script.
+     * <p>
+     * Relative paths are resolved against the {@link #workDir() work directory}.
+     *
+     * @param outputs the output files or directories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code outputs} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code outputs} array is {@code null}
+     * @see #outputs()
+     * @since 1.3
+     */
+    public JBangOperation outputs(@NonNull Path... outputs) {
+        for (var path : ObjectTools.requireNotEmpty(outputs, "outputs")) {
+            outputs_.add(path.toFile());
+        }
+        return this;
+    }
+
+    /**
+     * Adds output files or directories produced by the script.
+     * <p>
+     * Relative paths are resolved against the {@link #workDir() work directory}.
+     *
+     * @param outputs the output files or directories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code outputs} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code outputs} array is {@code null}
+     * @see #outputs()
+     * @since 1.3
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public JBangOperation outputs(@NonNull String... outputs) {
+        for (var path : ObjectTools.requireNotEmpty(outputs, "outputs")) {
+            outputs_.add(new File(path));
+        }
+        return this;
+    }
+
+    /**
+     * Retrieves the live collection of output files and directories.
+     * <p>
+     * When outputs are declared, a fingerprint of the {@link #script() script},
+     * {@link #jBangArgs() JBang arguments}, {@link #args() script arguments},
+     * {@link #env() environment variables}, {@link #inputs() input} contents and {@link #input(File) input
+     * file} contents is recorded in the {@link #cacheDirectory() cache directory} after each successful
+     * execution. Later executions are skipped when the fingerprint is unchanged and all outputs still exist.
+     * Scripts reading their input from a stream always run.
+     *
+     * @return the mutable list of outputs
+     * @see #inputs()
+     * @since 1.3
+     */
+    public List<File> outputs() {
+        return outputs_;
+    }
+
+    /**
+     * Sets the condition signaling that a {@link #start() started} script is ready.
+     *
+     * @param probe the readiness probe
+     * @return this operation instance
+     * @throws NullPointerException if {@code probe} is null
+     * @since 1.3
+     */
+    public JBangOperation readinessProbe(@NonNull ReadinessProbe probe) {
+        readinessProbe_ = ObjectTools.requireNonNull(probe, "probe");
+        return this;
+    }
+
+    /**
+     * Retrieves the condition signaling that a {@link #start() started} script is ready.
+     *
+     * @return the readiness probe, or {@code null} if not set
+     * @since 1.3
+     */
+    public ReadinessProbe readinessProbe() {
+        return readinessProbe_;
+    }
+
+    /**
+     * Sets the maximum time a {@link #start() started} script may take to be ready.
+     * <p>
+     * Default is {@code 60} seconds
+     *
+     * @param timeout the readiness timeout, must be positive
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code timeout} is not positive
+     * @throws NullPointerException     if {@code timeout} is null
+     * @since 1.3
+     */
+    public JBangOperation readinessTimeout(@NonNull Duration timeout) {
+        ObjectTools.requireNonNull(timeout, "timeout");
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException("readinessTimeout must be positive");
+        }
+        readinessTimeout_ = timeout;
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum time a {@link #start() started} script may take to be ready.
+     *
+     * @return the readiness timeout
+     * @since 1.3
+     */
+    public Duration readinessTimeout() {
+        return readinessTimeout_;
+    }
+
+    /**
+     * Sets the URL of a remote cache shared between builds, such as CI agents.
+     * <p>
+     * When set, executions are looked up with {@code GET} at the URL followed by a key computed like the
+     * {@link #resultCache(boolean) result cache} key, before the script is started. An entry contains the
+     * exit code, the captured output lines and the contents of the declared {@link #outputs() outputs}: on a
+     * hit, the outputs are restored and the output is replayed without starting a process. After an
+     * execution, its entry is uploaded with {@code PUT} in the background, and the build waits for pending
+     * uploads before exiting. Credentials in the URL are sent using basic authentication.
+     * <p>
+     * The remote cache applies to operations whose output is captured with {@link #inheritIO(boolean)
+     * inheritIO(false)}, or with declared outputs, under the same conditions as the result cache. Only
+     * successful executions are uploaded, so that a failed run never reaches other builds. Errors reaching
+     * the cache are logged, and the script is run as usual.
+     *
+     * @param url the cache URL
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code url} is empty or not a valid URI
+     * @throws NullPointerException     if {@code url} is null
+     * @see #remoteCachePush(boolean)
+     * @since 1.3
+     */
+    public JBangOperation remoteCache(@NonNull String url) {
+        return remoteCache(URI.create(ObjectTools.requireNotEmpty(url, "url")));
+    }
+
+    /**
+     * Sets the URL of a remote cache shared between builds, such as CI agents.
+     *
+     * @param url the cache URL
+     * @return this operation instance
+     * @throws NullPointerException if {@code url} is null
+     * @see #remoteCache(String)
+     * @since 1.3
+     */
+    public JBangOperation remoteCache(@NonNull URI url) {
+        remoteCache_ = ObjectTools.requireNonNull(url, "url");
+        return this;
+    }
+
+    /**
+     * Returns the URL of the remote cache.
+     *
+     * @return the cache URL, or {@code null} if not set
+     * @see #remoteCache(String)
+     * @since 1.3
+     */
+    public URI remoteCache() {
+        return remoteCache_;
+    }
+
+    /**
+     * Configures whether results should be uploaded to the {@link #remoteCache(String) remote cache}.
+     * <p>
+     * Disable uploads to only read entries stored by other builds, such as on developer machines.
+     * <p>
+     * Default is {@code true}
+     *
+     * @param remoteCachePush {@code true} to upload results, {@code false} otherwise
+     * @return this operation instance
+     * @since 1.3
+     */
+    public JBangOperation remoteCachePush(boolean remoteCachePush) {
+        remoteCachePush_ = remoteCachePush;
+        return this;
+    }
+
+    /**
+     * Resets the script-related state of the operation to its default values.
+     * <p>
+     * Specifically, this method:
+     * <ul>
+     *     <li>Clears all {@link #args() script arguments}</li>
+     *     <li>Clears all {@link #env() environment variables}</li>
+     *     <li>Clears all {@link #inputs() inputs} and {@link #outputs() outputs}</li>
+     *     <li>Clears all {@link #jBangArgs() JBang arguments}</li>
+     *     <li>Clears the {@link #input(File) input}</li>
+     *     <li>Clears the {@link #readinessProbe(ReadinessProbe) readiness probe}</li>
+     *     <li>Clears the {@link #resultCacheEnv() result cache environment variables}</li>
+     *     <li>Clears the {@link #outputFile() output} and {@link #errorFile() error} files, and resets the
+     *     {@link #isAppendOutput() append flag} to {@code false}</li>
+     *     <li>Resets the {@link #isExitOnFailure() exit on failure flag} to {@code true}</li>
+     *     <li>Clears the assigned {@link #script() script}</li>
+     * </ul>
+     * <p>
+     * The following are intentionally preserved across resets, as they are typically set once
+     * via {@link #fromProject(BaseProject) fromProject} and shared across multiple script
+     * executions: {@link #workDir() workDir}, {@link #jBangHome() jBangHome},
+     * {@link #timeout() timeout}, {@link #isInheritIO() inheritIO}, {@link #cacheDirectory() cacheDirectory},
+     * {@link #classpath() classpath}, {@link #isDirectLaunch() directLaunch}, {@link #isInProcess() inProcess},
+     * {@link #isServerMode() serverMode}, {@link #serverIdleTimeout() serverIdleTimeout},
+     * {@link #isStartupCache() startupCache}, {@link #isResultCache() resultCache},
+     * {@link #resultCacheSize() resultCacheSize}, {@link #remoteCache() remoteCache},
+     * {@link #isRemoteCachePush() remoteCachePush}, {@link #readinessTimeout() readinessTimeout},
+     * {@link #isAsyncOutput() asyncOutput}, {@link #outputBufferSize() outputBufferSize},
+     * {@link #tailLines() tailLines},
+     * {@link #tailBytes() tailBytes}, and the {@link #outputConsumer(Consumer) outputConsumer}
+     * and {@link #errorConsumer(Consumer) errorConsumer}.
+     */
+    public void reset() {
+        args_.clear();
+        env_.clear();
+        inputs_.clear();
+        outputs_.clear();
+        jBangArgs_.clear();
+        input_ = null;
+        readinessProbe_ = null;
+        resultCacheEnv_.clear();
+        outputFile_ = null;
+        errorFile_ = null;
+        appendOutput_ = false;
+        exitOnFailure_ = true;
+        script_ = null;
+    }
+
+    /**
+     * Returns the result of the last execution of this operation.
+     * <p>
+     * The result reports the exit status, the wall-clock duration, and when available, the time to first
+     * output, the output size, and the CPU time and peak memory of the script's process tree.
+     *
+     * @return the result, or {@code null} if the operation was not executed yet
+     * @see #execute()
+     * @see #executeAsync()
+     * @since 1.3
+     */
+    public JBangResult result() {
+        return result_;
+    }
+
+    /**
+     * Configures whether the exit code and output of scripts should be cached and replayed.
+     * <p>
+     * When enabled, the captured output lines and exit code of each execution are stored in the
+     * {@link #cacheDirectory() cache directory}, keyed by a hash of the script and its contents, the
+     * {@link #jBangArgs() JBang arguments}, the {@link #args() script arguments}, the
+     * {@link #resultCacheEnv() selected environment variables}, the declared {@link #inputs() inputs} and
+     * the {@link #input(File) input} file. Paths are relative to the {@link #workDir() work directory}, so
+     * that different checkouts of a project share the same keys. When an execution with the same key
+     * was already stored, its output is replayed to the {@link #outputConsumer(Consumer) output consumer}
+     * and its exit code is returned without starting a process.
+     * <p>
+     * Only use the result cache for scripts whose output only depends on these, such as calculators or
+     * formatters. The cache only applies when the output is captured with {@link #inheritIO(boolean)
+     * inheritIO(false)}, and not {@link #outputFile(File) redirected}, and when the input is absent or
+     * a file. Operations with declared {@link #outputs() outputs} rely on the up-to-date check instead.
+     * Only successful executions are stored, so that failures, such as a dependency that could not be
+     * downloaded, run again. The least recently used results are evicted when
+     * the cache grows over {@link #resultCacheSize() its maximum size}.
+     * <p>
+     * Default is {@code false}
+     *
+     * @param resultCache {@code true} to use the result cache, {@code false} otherwise
+     * @return this operation instance
+     * @see JBangResult#isCached()
+     * @since 1.3
+     */
+    public JBangOperation resultCache(boolean resultCache) {
+        resultCache_ = resultCache;
+        return this;
+    }
+
+    /**
+     * Selects environment variables that are part of the {@link #resultCache(boolean) result cache} key.
+     * <p>
+     * The value of each variable is taken from the {@link #env() environment variables} of the operation,
+     * or from the environment of the current JVM.
+     *
+     * @param names the names of the environment variables
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code names} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code names} collection is {@code null}
+     * @since 1.3
+     */
+    public JBangOperation resultCacheEnv(@NonNull Collection<String> names) {
+        resultCacheEnv_.addAll(ObjectTools.requireNotEmpty(names, "names"));
+        return this;
+    }
+
+    /**
+     * Selects environment variables that are part of the {@link #resultCache(boolean) result cache} key.
+     * <p>
+     * The value of each variable is taken from the {@link #env() environment variables} of the operation,
+     * or from the environment of the current JVM.
+     *
+     * @param names the names of the environment variables
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code names} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code names} array is {@code null}
+     * @since 1.3
+     */
+    public JBangOperation resultCacheEnv(@NonNull String... names) {
+        resultCacheEnv_.addAll(List.of(ObjectTools.requireNotEmpty(names, "names")));
+        return this;
+    }
+
+    /**
+     * Retrieves the live collection of environment variable names that are part of the
+     * {@link #resultCache(boolean) result cache} key.
+     * <p>
+     * The returned list is the operation's internal list. Callers may add to it directly;
+     * this is intentional by design (builder pattern).
+     *
+     * @return the mutable list of environment variable names
+     * @since 1.3
+     */
+    public List<String> resultCacheEnv() {
+        return resultCacheEnv_;
+    }
+
+    /**
+     * Sets the maximum size of the {@link #resultCache(boolean) result cache} in bytes.
+     * <p>
+     * Default is {@code 64} MiB
+     *
+     * @param bytes the maximum size in bytes, must be positive
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code bytes} is not positive
+     * @since 1.3
+     */
+    public JBangOperation resultCacheSize(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("resultCacheSize must be positive");
+        }
+        resultCacheSize_ = bytes;
+        return this;
+    }
+
+    /**
+     * Returns the maximum size of the {@link #resultCache(boolean) result cache} in bytes.
+     *
+     * @return the maximum size in bytes
+     * @see #resultCacheSize(long)
+     * @since 1.3
+     */
+    public long resultCacheSize() {
+        return resultCacheSize_;
+    }
+
+    /**
+     * Sets the script to be executed.
+     *
+     * @param script the script to execute
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code script} is null or empty
+     * @throws NullPointerException     if {@code script} is null
+     */
+    public JBangOperation script(@NonNull String script) {
+        script_ = ObjectTools.requireNotEmpty(script, "script");
+        return this;
+    }
+
+    /**
+     * Retrieves the script that has been set for execution.
+     *
+     * @return the script to be executed or {@code null}
+     */
+    public String script() {
+        return script_;
+    }
+
+    /**
+     * Sets generated source code as the script to be executed.
+     * <p>
+     * The code is written to {@code sources/<hash>/<name>} under the {@link #cacheDirectory() cache
+     * directory}, where {@code hash} is derived from the code, and that file is set as the
+     * {@link #script() script}. Identical code is always written to the same path, and the existing file is
+     * reused, so that JBang finds the script in its own cache and does not compile it again.
+     * <p>
+     * The {@link #cacheDirectory() cache directory} or the {@link #workDir() work directory} must be set
+     * first, typically with {@link #fromProject(BaseProject) fromProject}.
      *
-     * @param jBangHome the JBang home directory
+     * @param code the source code of the script
+     * @param name the file name of the script, such as {@code Hello.java}
      * @return this operation instance
-     * @throws NullPointerException     if {@code jBangHome} is null
-     * @throws IllegalArgumentException if {@code jBangHome} is empty
+     * @throws IllegalArgumentException if {@code name} is empty or not a plain file name
+     * @throws IllegalStateException    if neither the cache directory nor the work directory is set
+     * @throws NullPointerException     if {@code code} or {@code name} is null
+     * @throws UncheckedIOException     if the code could not be written
+     * @since 1.3
      */
     @SuppressFBWarnings("PATH_TRAVERSAL_IN")
-    public JBangOperation jBangHome(@NonNull String jBangHome) {
-        ObjectTools.requireNotEmpty(jBangHome, "jBangHome");
-        jBangHome_ = new File(jBangHome);
+    public JBangOperation scriptSource(@NonNull String code, @NonNull String name) {
+        ObjectTools.requireNonNull(code, "code");
+        ObjectTools.requireNotEmpty(name, "name");
+        if (name.contains("/") || name.contains("\\") || ".".equals(name) || "..".equals(name)) {
+            throw new IllegalArgumentException("name must be a plain file name");
+        }
+        if (cacheDir_ == null && workDir_ == null) {
+            throw new IllegalStateException("A cache or work directory must be specified.");
+        }
+
+        var hash = new Fingerprint().add(code).hex().substring(0, 32);
+        var file = new File(new File(new File(effectiveCacheDirectory(), "sources"), hash), name);
+        if (!file.isFile()) {
+            try {
+                var dir = Files.createDirectories(file.getParentFile().toPath());
+                var temp = Files.createTempFile(dir, "source", ".tmp");
+                try {
+                    Files.writeString(temp, code, StandardCharsets.UTF_8);
+                    Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        script_ = file.getAbsolutePath();
         return this;
     }
 
     /**
-     * Sets the JBang home directory.
+     * Sets the number of seconds a script server may stay idle before shutting itself down.
+     * <p>
+     * Default is {@code 60} seconds
      *
-     * @param jBangHome the JBang home directory
+     * @param seconds the idle timeout in seconds, must be positive
      * @return this operation instance
-     * @throws NullPointerException if {@code jBangHome} is null
+     * @throws IllegalArgumentException if {@code seconds} is not positive
+     * @see #serverMode(boolean)
+     * @since 1.3
      */
-    public JBangOperation jBangHome(@NonNull File jBangHome) {
-        ObjectTools.requireNonNull(jBangHome, "jBangHome");
-        jBangHome_ = jBangHome;
+    public JBangOperation serverIdleTimeout(long seconds) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("serverIdleTimeout must be positive");
+        }
+        serverIdleTimeout_ = seconds;
         return this;
     }
 
     /**
-     * Sets the JBang home directory.
+     * Returns the number of seconds a script server may stay idle before shutting itself down.
      *
-     * @param jBangHome the JBang home directory
+     * @return the idle timeout in seconds
+     * @see #serverIdleTimeout(long)
+     * @since 1.3
+     */
+    public long serverIdleTimeout() {
+        return serverIdleTimeout_;
+    }
+
+    /**
+     * Configures whether scripts should run in a reusable server JVM.
+     * <p>
+     * When enabled, the script is resolved like a {@link #directLaunch(boolean) direct launch}, and its
+     * main class is invoked inside a long-lived JVM instead of a new process. The first execution starts
+     * the server; later executions of scripts with the same java executable, runtime options, classpath,
+     * {@link #workDir() work directory} and {@link #env() environment variables} reuse it, skipping JVM
+     * startup and keeping JIT-compiled code warm.
+     * <p>
+     * Each execution loads the script in a fresh class loader, and a {@code System.exit()} call is
+     * reported as the exit code instead of terminating the server. Calls from threads a script left running
+     * are ignored for as long as the server runs. Servers shut down after
+     * {@link #serverIdleTimeout() being idle}, and when the build ends. Scripts read an empty
+     * {@code stdin}, and static state of the JDK (system properties, default locale, etc.) is shared
+     * between executions.
+     * <p>
+     * {@code System.exit()} is trapped with a security manager, which the server JVM allows with
+     * {@code -Djava.security.manager=allow} on Java 18 and later, and for which Java 17 and later print a
+     * deprecation warning when the server starts. The server requires Java 17, and Java 24 removed the
+     * security manager, so only scripts running on Java 17 through 23 can use a server. Other scripts, scripts
+     * that are not local files or cannot be resolved, scripts with an {@link #input(File) input} or
+     * {@link #outputFile(File) output redirects}, and scripts whose server could not be started or reached
+     * are launched as usual, in a new process, directly if {@link #directLaunch(boolean) direct launch} is
+     * enabled, or through JBang otherwise.
+     * <p>
+     * Default is {@code false}
+     *
+     * @param serverMode {@code true} to run scripts in a server, {@code false} otherwise
      * @return this operation instance
-     * @throws NullPointerException if {@code jBangHome} is null
+     * @since 1.3
      */
-    public JBangOperation jBangHome(@NonNull Path jBangHome) {
-        ObjectTools.requireNonNull(jBangHome, "jBangHome");
-        jBangHome_ = jBangHome.toFile();
+    public JBangOperation serverMode(boolean serverMode) {
+        serverMode_ = serverMode;
         return this;
     }
 
     /**
-     * Retrieves the JBang home directory.
+     * Configures whether scripts should record and use a startup archive.
+     * <p>
+     * When enabled, the first run of a script records the classes it loads into a class-data-sharing
+     * archive, or an AOT cache on Java 25 and later, stored in the {@link #cacheDirectory() cache directory}.
+     * Later runs map the archive instead of loading and verifying the classes again, which reduces the
+     * startup time of short-lived scripts.
+     * <p>
+     * Archives are keyed by the script, its JDK, its classpath and its runtime Java options, so a new
+     * archive is recorded whenever the script or its dependencies change. They are passed as
+     * {@code --java-options} to JBang, or to {@code java} when {@link #directLaunch(boolean) launched directly}.
+     * Scripts running on Java 12 or earlier, scripts that are not local files, and scripts run in a
+     * {@link #serverMode(boolean) server} do not use archives, nor do scripts already configured with
+     * archive options.
+     * <p>
+     * Default is {@code false}
      *
-     * @return the JBang home directory
+     * @param startupCache {@code true} to use startup archives, {@code false} otherwise
+     * @return this operation instance
+     * @since 1.3
      */
-    public File jBangHome() {
-        return jBangHome_;
+    public JBangOperation startupCache(boolean startupCache) {
+        startupCache_ = startupCache;
+        return this;
     }
 
     /**
-     * Sets a consumer to receive output lines when not inheriting I/O.
+     * Sets the maximum number of bytes kept by the {@link #tailLines(int) output tail}.
+     * <p>
+     * The oldest lines are dropped once either limit is reached, so that memory use stays bounded for
+     * scripts writing very large logs.
      * <p>
-     * Only called when {@link #isInheritIO()} is {@code false}. Default logs at INFO level.
+     * Default is {@code 65536} bytes
      *
-     * @param outputConsumer the output consumer, must not be null
+     * @param bytes the maximum number of bytes
      * @return this operation instance
-     * @throws NullPointerException if outputConsumer is null
+     * @throws IllegalArgumentException if {@code bytes} is not positive
+     * @since 1.3
      */
-    public JBangOperation outputConsumer(@NonNull Consumer<String> outputConsumer) {
-        ObjectTools.requireNonNull(outputConsumer, "outputConsumer");
-        outputConsumer_ = outputConsumer;
+    public JBangOperation tailBytes(int bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("tailBytes must be positive");
+        }
+        tailBytes_ = bytes;
         return this;
     }
 
     /**
-     * Resets the script-related state of the operation to its default values.
+     * Retrieves the maximum number of bytes kept by the output tail.
+     *
+     * @return the maximum number of bytes
+     * @since 1.3
+     */
+    public int tailBytes() {
+        return tailBytes_;
+    }
+
+    /**
+     * Sets the number of last output lines kept for failure diagnostics.
      * <p>
-     * Specifically, this method:
-     * <ul>
-     *     <li>Clears all {@link #args() script arguments}</li>
-     *     <li>Clears all {@link #env() environment variables}</li>
-     *     <li>Clears all {@link #jBangArgs() JBang arguments}</li>
-     *     <li>Resets the {@link #isExitOnFailure() exit on failure flag} to {@code true}</li>
-     *     <li>Clears the assigned {@link #script() script}</li>
-     * </ul>
+     * When not {@link #inheritIO(boolean) inheriting I/O}, the last lines pumped from the script are kept in a
+     * fixed-size buffer, up to this number of lines and {@link #tailBytes(int) tailBytes} bytes. If the script
+     * fails or times out, they are attached to the {@link JBangResult#tail() result} and logged with the
+     * failure. Scripts are then not run {@link #isInProcess() in-process} or in a
+     * {@link #isServerMode() server}.
      * <p>
-     * The following are intentionally preserved across resets, as they are typically set once
-     * via {@link #fromProject(BaseProject) fromProject} and shared across multiple script
-     * executions: {@link #workDir() workDir}, {@link #jBangHome() jBangHome},
-     * {@link #timeout() timeout}, {@link #isInheritIO() inheritIO}, and the
-     * {@link #outputConsumer(Consumer) outputConsumer}.
+     * Default is {@code 0}, no tail is kept
+     *
+     * @param lines the number of lines, or {@code 0} to disable
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code lines} is negative
+     * @since 1.3
      */
-    public void reset() {
-        args_.clear();
-        env_.clear();
-        jBangArgs_.clear();
-        exitOnFailure_ = true;
-        script_ = null;
+    public JBangOperation tailLines(int lines) {
+        if (lines < 0) {
+            throw new IllegalArgumentException("tailLines must not be negative");
+        }
+        tailLines_ = lines;
+        return this;
     }
 
     /**
-     * Sets the script to be executed.
+     * Retrieves the number of last output lines kept for failure diagnostics.
      *
-     * @param script the script to execute
+     * @return the number of lines, {@code 0} if disabled
+     * @since 1.3
+     */
+    public int tailLines() {
+        return tailLines_;
+    }
+
+    /**
+     * Sets the time the script's processes are given to exit after a {@link #timeout(Duration) timeout},
+     * before they are killed.
+     * <p>
+     * On Unix, the processes are first sent {@code SIGTERM}, so that they can clean up, then {@code SIGKILL}
+     * once the grace period has elapsed.
+     * <p>
+     * Default is {@code 5} seconds
+     *
+     * @param gracePeriod the grace period, or {@link Duration#ZERO} to kill the processes immediately
      * @return this operation instance
-     * @throws IllegalArgumentException if {@code script} is null or empty
-     * @throws NullPointerException     if {@code script} is null
+     * @throws IllegalArgumentException if {@code gracePeriod} is negative
+     * @throws NullPointerException     if {@code gracePeriod} is null
+     * @since 1.3
      */
-    public JBangOperation script(@NonNull String script) {
-        script_ = ObjectTools.requireNotEmpty(script, "script");
+    public JBangOperation terminationGracePeriod(@NonNull Duration gracePeriod) {
+        ObjectTools.requireNonNull(gracePeriod, "gracePeriod");
+        if (gracePeriod.isNegative()) {
+            throw new IllegalArgumentException("terminationGracePeriod must not be negative");
+        }
+        terminationGracePeriod_ = gracePeriod;
         return this;
     }
 
     /**
-     * Retrieves the script that has been set for execution.
+     * Retrieves the time the script's processes are given to exit after a timeout, before they are killed.
      *
-     * @return the script to be executed or {@code null}
+     * @return the grace period
+     * @see #terminationGracePeriod(Duration)
+     * @since 1.3
      */
-    public String script() {
-        return script_;
+    public Duration terminationGracePeriod() {
+        return terminationGracePeriod_;
     }
 
     /**
@@ -539,6 +1966,7 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
      * @param seconds the timeout in seconds (positive); use a negative value for no timeout
      * @return this operation instance
      * @throws IllegalArgumentException if {@code seconds} is {@code 0}
+     * @see #timeout(Duration)
      * @since 1.2
      */
     public JBangOperation timeout(long seconds) {
@@ -546,7 +1974,34 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
             throw new IllegalArgumentException(
                     "timeout must be a positive number of seconds, or negative for no timeout; 0 is not allowed");
         }
-        timeout_ = seconds;
+        timeout_ = Duration.ofSeconds(seconds);
+        return this;
+    }
+
+    /**
+     * Sets the timeout for JBang execution, with millisecond precision.
+     * <p>
+     * If the process does not complete within the specified timeout, it is asked to terminate together
+     * with all of its descendants, such as workers forked by the script. The processes still running after
+     * the {@link #terminationGracePeriod(Duration) grace period} are killed, and the operation fails. The
+     * number of terminated processes is reported by {@link JBangResult#reaped()}. If set to any negative
+     * duration, the process will wait indefinitely. A zero duration is not allowed.
+     * <p>
+     * Default is {@code 600} seconds (10 minutes)
+     *
+     * @param timeout the timeout (positive); use a negative duration for no timeout
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code timeout} is zero
+     * @throws NullPointerException     if {@code timeout} is null
+     * @since 1.3
+     */
+    public JBangOperation timeout(@NonNull Duration timeout) {
+        ObjectTools.requireNonNull(timeout, "timeout");
+        if (timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive, or negative for no timeout; "
+                    + "0 is not allowed");
+        }
+        timeout_ = timeout;
         return this;
     }
 
@@ -560,6 +2015,23 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
      * @since 1.2
      */
     public long timeout() {
+        if (timeout_.isNegative()) {
+            return timeout_.getSeconds();
+        }
+        var seconds = timeout_.getSeconds();
+        return timeout_.getNano() > 0 ? seconds + 1 : seconds;
+    }
+
+    /**
+     * Retrieves the timeout for JBang execution.
+     * <p>
+     * A positive duration is the timeout. A negative duration indicates no timeout (wait indefinitely).
+     *
+     * @return the timeout
+     * @see #timeout(Duration)
+     * @since 1.3
+     */
+    public Duration timeoutDuration() {
         return timeout_;
     }
 
@@ -612,6 +2084,441 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
         return this;
     }
 
+    /**
+     * Creates a copy of this operation, with all its settings but not its result.
+     * <p>
+     * Collections are copied, so the copy can be modified independently. An {@link #input(InputStream)
+     * input} stream or supplier is shared.
+     *
+     * @return the copy
+     */
+    JBangOperation copy() {
+        var copy = new JBangOperation();
+        copy.args_.addAll(args_);
+        copy.classpath_.addAll(classpath_);
+        copy.env_.putAll(env_);
+        copy.inputs_.addAll(inputs_);
+        copy.jBangArgs_.addAll(jBangArgs_);
+        copy.outputs_.addAll(outputs_);
+        copy.resultCacheEnv_.addAll(resultCacheEnv_);
+        copy.appendOutput_ = appendOutput_;
+        copy.argFileThreshold_ = argFileThreshold_;
+        copy.asyncOutput_ = asyncOutput_;
+        copy.cacheDir_ = cacheDir_;
+        copy.directLaunch_ = directLaunch_;
+        copy.errorConsumer_ = errorConsumer_;
+        copy.errorFile_ = errorFile_;
+        copy.exitOnFailure_ = exitOnFailure_;
+        copy.inProcess_ = inProcess_;
+        copy.inheritIO_ = inheritIO_;
+        copy.input_ = input_;
+        copy.jBangHome_ = jBangHome_;
+        copy.outputBufferSize_ = outputBufferSize_;
+        copy.outputConsumer_ = outputConsumer_;
+        copy.outputFile_ = outputFile_;
+        copy.readinessProbe_ = readinessProbe_;
+        copy.readinessTimeout_ = readinessTimeout_;
+        copy.remoteCache_ = remoteCache_;
+        copy.remoteCachePush_ = remoteCachePush_;
+        copy.resultCache_ = resultCache_;
+        copy.resultCacheSize_ = resultCacheSize_;
+        copy.script_ = script_;
+        copy.serverIdleTimeout_ = serverIdleTimeout_;
+        copy.serverMode_ = serverMode_;
+        copy.startupCache_ = startupCache_;
+        copy.tailBytes_ = tailBytes_;
+        copy.tailLines_ = tailLines_;
+        copy.terminationGracePeriod_ = terminationGracePeriod_;
+        copy.timeout_ = timeout_;
+        copy.workDir_ = workDir_;
+        return copy.silent(silent());
+    }
+
+    /**
+     * Verifies the result of a JBang execution.
+     * <p>
+     * A timeout always fails, any other non-zero exit code only fails if
+     * {@link #isExitOnFailure() exitOnFailure} is set.
+     *
+     * @param result the execution result
+     * @throws ExitStatusException if the execution timed out or failed
+     */
+    void checkResult(JBangResult result) throws ExitStatusException {
+        if (result.timedOut()) {
+            if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                logger.severe("JBang execution timed out after " + format(timeout_)
+                        + (result.reaped() > 0 ? ", terminated " + result.reaped() + " processes." : "."));
+            }
+            logTail(result);
+            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+        }
+
+        if (exitOnFailure_ && !result.isSuccess()) {
+            logTail(result);
+            ExitStatusException.throwOnFailure(result.exitCode());
+        }
+    }
+
+    /**
+     * Determines whether the script's {@code stdin} is fed from a stream or a buffer supplier, which can
+     * only be read once.
+     *
+     * @return {@code true} if the input is streamed, {@code false} if it is a file or not set
+     */
+    boolean hasStreamedInput() {
+        return input_ != null && input_.file() == null;
+    }
+
+    /**
+     * Launches JBang and waits for it to complete, without checking its exit status.
+     *
+     * @return the execution result
+     * @throws Exception           if an error occurs
+     * @throws ExitStatusException if workDir is null or invalid
+     */
+    JBangResult launch() throws Exception {
+        checkWorkDir();
+
+        UpToDateCheck upToDate = null;
+        if (!outputs_.isEmpty()) {
+            // streamed input cannot be fingerprinted, so the script always runs
+            var streamed = hasStreamedInput();
+            upToDate = new UpToDateCheck(this, input_ != null && !streamed ? resolveFile(input_.file()) : null);
+            if (!streamed && upToDate.isUpToDate()) {
+                if (logger.isLoggable(Level.INFO) && !silent()) {
+                    logger.info("Skipping " + (script_ != null ? script_ : "JBang") + ", up-to-date.");
+                }
+                result_ = JBangResult.skipped();
+                return result_;
+            }
+        }
+
+        var name = script_ != null ? script_ : "JBang";
+        var keyable = outputFile_ == null && errorFile_ == null && errorConsumer_ == null
+                && (input_ == null || input_.file() != null);
+        var inputFile = keyable && input_ != null ? resolveFile(input_.file()) : null;
+        var cached = resultCache_ && keyable && !inheritIO_ && outputs_.isEmpty();
+        var cachedRemotely = remoteCache_ != null && keyable && (!inheritIO_ || !outputs_.isEmpty());
+        // hashing the inputs can be expensive, so both caches share the key
+        var key = cached || cachedRemotely ? ResultCache.key(this, inputFile) : null;
+        ResultCache cache = null;
+        if (cached) {
+            cache = new ResultCache(this, key, resultCacheSize_);
+            var entry = cache.load();
+            if (entry != null) {
+                return replay(entry, name + ", cached.");
+            }
+        }
+
+        RemoteCache remote = null;
+        if (cachedRemotely) {
+            remote = new RemoteCache(this, remoteCache_, key);
+            try {
+                var entry = remote.load();
+                if (entry != null) {
+                    if (cache != null && entry.exitCode() == 0) {
+                        cache.store(entry.exitCode(), entry.lines());
+                    }
+                    if (upToDate != null && entry.exitCode() == 0) {
+                        upToDate.record();
+                    }
+                    return replay(entry, name + ", cached remotely.");
+                }
+            } catch (IOException e) {
+                if (logger.isLoggable(Level.WARNING) && !silent()) {
+                    logger.warning("Could not read the remote cache: " + e.getMessage());
+                }
+                remote = null;
+            }
+        }
+
+        var sink = asyncOutput_ && outputConsumer_ == defaultOutputConsumer && !inheritIO_
+                ? new AsyncLogSink(logger) : null;
+        var consumer = sink != null ? sink : outputConsumer_;
+        var lines = Collections.synchronizedList(new ArrayList<String>());
+        Consumer<String> output = cache == null && remote == null ? consumer : line -> {
+            lines.add(line);
+            consumer.accept(line);
+        };
+        var start = System.nanoTime();
+        JBangResult result;
+        try {
+            result = run(output).withDuration(Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            if (sink != null) {
+                sink.close();
+            }
+        }
+        for (var async : Arrays.asList(outputConsumer_, errorConsumer_)) {
+            if (async instanceof AsyncLogSink) {
+                ((AsyncLogSink) async).flush();
+            }
+        }
+        if (!result.timedOut()) {
+            var captured = List.copyOf(lines);
+            try {
+                if (cache != null && result.isSuccess()) {
+                    cache.store(result.exitCode(), captured);
+                }
+                if (remote != null && remoteCachePush_ && result.isSuccess()) {
+                    remote.store(result.exitCode(), captured).whenComplete((v, e) -> {
+                        if (e != null && logger.isLoggable(Level.WARNING) && !silent()) {
+                            logger.warning("Could not write to the remote cache: "
+                                    + (e.getCause() != null ? e.getCause() : e).getMessage());
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                if (logger.isLoggable(Level.WARNING) && !silent()) {
+                    logger.warning("Could not cache the result of " + name + ": " + e.getMessage());
+                }
+            }
+        }
+        if (upToDate != null) {
+            if (result.isSuccess()) {
+                upToDate.record();
+            } else {
+                upToDate.invalidate();
+            }
+        }
+        if (logger.isLoggable(Level.FINE) && !silent()) {
+            logger.fine(result.toString());
+        }
+        result_ = result;
+        return result;
+    }
+
+    /**
+     * Returns the JBang arguments, followed by the {@link #classpath() classpath} if any and a script is run.
+     *
+     * @return the arguments passed to JBang before the script
+     */
+    List<String> launchArgs() {
+        if (classpath_.isEmpty() || script_ == null) {
+            return jBangArgs_;
+        }
+        var paths = new ArrayList<String>(classpath_.size());
+        for (var entry : classpath_) {
+            paths.add(resolveFile(entry).getPath());
+        }
+        var args = new ArrayList<String>(jBangArgs_.size() + 1);
+        args.addAll(jBangArgs_);
+        args.add("--class-path=" + String.join(File.pathSeparator, paths));
+        return args;
+    }
+
+    /**
+     * Resolves a file relative to the work directory.
+     *
+     * @param file the file
+     * @return the absolute file
+     */
+    File resolveFile(File file) {
+        return (file.isAbsolute() ? file : new File(workDir_, file.getPath())).getAbsoluteFile();
+    }
+
+    /**
+     * Verifies that the work directory is set and exists.
+     *
+     * @throws ExitStatusException if the work directory is null or invalid
+     */
+    void checkWorkDir() throws ExitStatusException {
+        if (workDir_ == null) {
+            if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                logger.severe("A work dir must be specified.");
+            }
+            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+        } else if (!workDir_.isDirectory()) {
+            if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                logger.severe("Invalid working directory: " + workDir_.getAbsolutePath());
+            }
+            throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+        }
+    }
+
+    private static String format(Duration duration) {
+        return duration.toMillis() % 1000 == 0
+                ? duration.toSeconds() + " seconds"
+                : duration.toMillis() + " milliseconds";
+    }
+
+    private static long length(List<String> args) {
+        var length = 0L;
+        for (var arg : args) {
+            length += arg.length() + 1L;
+        }
+        return length;
+    }
+
+    private void logTail(JBangResult result) {
+        if (!result.tail().isEmpty() && logger.isLoggable(Level.SEVERE) && !silent()) {
+            var message = new StringBuilder("Last ").append(result.tail().size()).append(" lines of output:");
+            for (var line : result.tail()) {
+                message.append(System.lineSeparator()).append(line);
+            }
+            logger.severe(message.toString());
+        }
+    }
+
+    private JBangResult replay(ResultCache.Entry entry, String message) {
+        if (logger.isLoggable(Level.INFO) && !silent()) {
+            logger.info("Replaying " + message);
+        }
+        entry.lines().forEach(outputConsumer_);
+        var result = JBangResult.cached(entry.exitCode(), entry.bytes());
+        if (tailLines_ > 0 && !result.isSuccess()) {
+            var tail = new OutputTail(tailLines_, tailBytes_);
+            for (var line : entry.lines()) {
+                var bytes = line.getBytes(Charset.defaultCharset());
+                tail.add(bytes, 0, bytes.length);
+            }
+            result = result.withTail(tail.lines(Charset.defaultCharset()));
+        }
+        result_ = result;
+        return result_;
+    }
+
+    private JBangResult run(Consumer<String> output) throws Exception {
+        var redirected = outputFile_ != null || errorFile_ != null || errorConsumer_ != null || input_ != null
+                || tailLines_ > 0;
+        if (inProcess_ && !redirected && script_ == null && env_.isEmpty()
+                && InProcessJBang.isSubcommand(jBangArgs_)
+                && workDir_.getCanonicalFile().equals(new File("").getCanonicalFile())) {
+            var jar = InProcessJBang.findJar(jBangHome_);
+            if (jar != null) {
+                var args = new ArrayList<>(jBangArgs_);
+                args.addAll(args_);
+                if (logger.isLoggable(Level.INFO) && !silent()) {
+                    logger.info("jbang (in-process) " + String.join(" ", args));
+                }
+                try {
+                    var result = InProcessJBang.run(jar, args, inheritIO_ ? null : output, timeout_);
+                    if (result != null) {
+                        return result;
+                    }
+                    if (logger.isLoggable(Level.WARNING) && !silent()) {
+                        logger.warning("A timed out in-process JBang command is still running, starting a new "
+                                + "process instead.");
+                    }
+                } catch (ReflectiveOperationException e) {
+                    if (logger.isLoggable(Level.WARNING) && !silent()) {
+                        logger.warning("Could not run JBang in-process, starting a new process instead: " + e);
+                    }
+                }
+            }
+        }
+
+        var jBangExec = findJBangExec();
+        var scriptFile = scriptFile();
+        if (script_ != null) {
+            JBangWarmUpOperation.await(this, jBangExec, scriptFile);
+        }
+        LaunchCache.Launch launch = null;
+        if ((serverMode_ || directLaunch_ || startupCache_) && scriptFile != null) {
+            launch = LaunchCache.resolve(this, jBangExec, scriptFile);
+        }
+        if (serverMode_ && !redirected && launch != null && ScriptServers.isSupported(launch)) {
+            if (logger.isLoggable(Level.INFO) && !silent()) {
+                var line = new ArrayList<String>();
+                line.add("jbang (server)");
+                line.add(launch.mainClass());
+                line.addAll(args_);
+                logger.info(String.join(" ", line));
+            }
+            try {
+                return ScriptServers.run(launch, LaunchCache.javaOptions(jBangArgs_), workDir_, env_, args_,
+                        inheritIO_ ? null : output, timeout_, serverIdleTimeout_);
+            } catch (IOException e) {
+                if (logger.isLoggable(Level.WARNING) && !silent()) {
+                    logger.warning("Could not run " + script_ + " in a server, starting a new process instead: "
+                            + e.getMessage());
+                }
+            }
+        }
+
+        return process(jBangExec, launch, scriptFile, inheritIO_, output).run();
+    }
+
+    private ScriptProcess process(String jBangExec, LaunchCache.Launch launch, File scriptFile, boolean inheritIO,
+                                  Consumer<String> output) throws Exception {
+        var command = new ArrayList<String>();
+        var direct = directLaunch_ && launch != null;
+        var startupOptions = startupCache_ && launch != null
+                ? StartupCache.options(this, launch, scriptFile, direct)
+                : List.<String>of();
+        if (direct) {
+            command.addAll(LaunchCache.command(this, launch, startupOptions));
+        } else {
+            command.add(jBangExec);
+            command.addAll(launchArgs());
+            for (var option : startupOptions) {
+                command.add("--java-options=" + option);
+            }
+            if (script_ != null) {
+                command.add(script_);
+            }
+        }
+
+        Path argFile = null;
+        if (argFileThreshold_ > 0 && !args_.isEmpty() && length(command) + length(args_) > argFileThreshold_) {
+            argFile = ArgFile.write(args_);
+            command.add(ArgFile.PREFIX + argFile);
+        } else {
+            command.addAll(args_);
+        }
+
+        if (logger.isLoggable(Level.INFO) && !silent()) {
+            logger.info(String.join(" ", command));
+        }
+
+        var process = new ScriptProcess(command)
+                .workDir(workDir_)
+                .timeout(timeout_)
+                .terminationGracePeriod(terminationGracePeriod_)
+                .inheritIO(inheritIO)
+                .env(env_)
+                .outputFile(outputFile_ == null ? null : resolveFile(outputFile_))
+                .errorFile(errorFile_ == null ? null : resolveFile(errorFile_))
+                .append(appendOutput_)
+                .input(input_ != null && input_.file() != null ? ScriptInput.of(resolveFile(input_.file())) : input_)
+                .temporaryFile(argFile);
+
+        if (!inheritIO) {
+            process.outputConsumer(output).errorConsumer(errorConsumer_).bufferSize(outputBufferSize_)
+                    .tail(tailLines_ > 0 ? new OutputTail(tailLines_, tailBytes_) : null);
+        }
+        return process;
+    }
+
+    /**
+     * Returns the cache directory to use, defaulting to {@code build/jbang} under the work directory.
+     *
+     * @return the cache directory
+     */
+    File effectiveCacheDirectory() {
+        if (cacheDir_ != null) {
+            return cacheDir_;
+        }
+        return Path.of(workDir_.getAbsolutePath(), "build", "jbang").toFile();
+    }
+
+    /**
+     * Resolves the script to a local file, relative to the work directory.
+     *
+     * @return the script file, or {@code null} if no script is set or it is not a local file
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    File scriptFile() {
+        if (script_ == null || script_.contains("://")) {
+            return null;
+        }
+        var file = new File(script_);
+        if (!file.isAbsolute()) {
+            file = new File(workDir_, script_);
+        }
+        return file.isFile() ? file.getAbsoluteFile() : null;
+    }
+
     /**
      * Finds the JBang executable path.
      * <p>
@@ -623,7 +2530,7 @@ public class JBangOperation extends AbstractOperation<JBangOperation> {
      * @return the absolute path to the JBang executable, or the bare name if relying on PATH
      * @throws ExitStatusException if the resolved executable is not found or not executable
      */
-    private String findJBangExec() throws ExitStatusException {
+    String findJBangExec() throws ExitStatusException {
         var jbang = isWindows() ? "jbang.cmd" : "jbang";
         if (jBangHome_ == null) {
             return jbang;
@@ -0,0 +1,544 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import rife.bld.BaseProject;
+import rife.bld.dependencies.ArtifactRetriever;
+import rife.bld.dependencies.Dependency;
+import rife.bld.dependencies.DependencyResolver;
+import rife.bld.dependencies.Repository;
+import rife.bld.dependencies.Scope;
+import rife.bld.dependencies.VersionResolution;
+import rife.bld.extension.tools.ObjectTools;
+import rife.bld.operations.AbstractOperation;
+import rife.bld.operations.exceptions.ExitStatusException;
+import rife.ioc.HierarchicalProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Downloads the dependencies of JBang scripts ahead of their first run.
+ * <p>
+ * The {@code //DEPS} and {@code //REPOS} {@link ScriptDirectives directives} of all the scripts are
+ * collected, and the dependencies resolved transitively with bld's own resolver, at most
+ * {@link #concurrency() concurrency} at the same time. Their jars and POMs are then transferred in parallel
+ * into the {@link #localRepository() local Maven repository} JBang reads from, so that the scripts start
+ * with warm caches.
+ * <p>
+ * Prefetching is best-effort: a dependency that cannot be resolved or transferred is logged, and left
+ * for JBang to report when running the script. Artifacts already present in the local repository are
+ * not transferred again.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+@SuppressFBWarnings(
+        value = "EI_EXPOSE_REP",
+        justification = "Builder pattern intentionally exposes mutable collections; callers may add to them directly"
+)
+public class JBangPrefetchOperation extends AbstractOperation<JBangPrefetchOperation> {
+
+    private static final Map<String, String> KNOWN_REPOS = Map.of(
+            "central", Repository.MAVEN_CENTRAL.location(),
+            "google", "https://maven.google.com/",
+            "jitpack", "https://jitpack.io/",
+            "mavencentral", Repository.MAVEN_CENTRAL.location());
+    private static final Logger logger = Logger.getLogger(JBangPrefetchOperation.class.getName());
+    private final List<Repository> repositories_ = new ArrayList<>();
+    private final List<File> scripts_ = new ArrayList<>();
+    private List<File> artifacts_ = List.of();
+    private int concurrency_ = Runtime.getRuntime().availableProcessors();
+    private File localRepository_;
+    private HierarchicalProperties properties_;
+    private File workDir_;
+
+    /**
+     * Retrieves the artifacts transferred by the last execution.
+     *
+     * @return the unmodifiable list of files written to the local repository, empty if the operation has not
+     * been executed or all the artifacts were already present
+     */
+    public List<File> artifacts() {
+        return artifacts_;
+    }
+
+    /**
+     * Sets the maximum number of dependencies to resolve or transfer at the same time.
+     * <p>
+     * Default is the number of available processors
+     *
+     * @param concurrency the maximum number of concurrent downloads
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code concurrency} is less than {@code 1}
+     */
+    public JBangPrefetchOperation concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        concurrency_ = concurrency;
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of dependencies to resolve or transfer at the same time.
+     *
+     * @return the maximum number of concurrent downloads
+     */
+    public int concurrency() {
+        return concurrency_;
+    }
+
+    /**
+     * Performs the operation.
+     *
+     * @throws Exception           if an error occurs
+     * @throws ExitStatusException if a script could not be read
+     */
+    @Override
+    public void execute() throws Exception {
+        artifacts_ = List.of();
+        var dependencies = collect();
+        if (dependencies.isEmpty()) {
+            return;
+        }
+
+        var localRepository = localRepository_ != null ? localRepository_ : defaultLocalRepository();
+        var resolution = new VersionResolution(properties_ != null ? properties_ : new HierarchicalProperties());
+        var retriever = ArtifactRetriever.cachingInstance();
+        var start = System.nanoTime();
+
+        var counter = new AtomicInteger();
+        var pool = Executors.newFixedThreadPool(concurrency_, r -> {
+            var thread = new Thread(r, "jbang-prefetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        var transferred = new ArrayList<File>();
+        try {
+            var resolveTasks = new ArrayList<Callable<Map<String, Artifact>>>(dependencies.size());
+            for (var entry : dependencies.entrySet()) {
+                var repositories = List.copyOf(entry.getValue());
+                resolveTasks.add(() -> resolve(resolution, retriever, repositories, entry.getKey()));
+            }
+            var artifacts = new LinkedHashMap<String, Artifact>();
+            for (var resolved : invokeAll(pool, resolveTasks)) {
+                resolved.forEach(artifacts::putIfAbsent);
+            }
+
+            var transferTasks = new ArrayList<Callable<List<File>>>(artifacts.size());
+            for (var artifact : artifacts.values()) {
+                transferTasks.add(() -> transfer(resolution, retriever, artifact, localRepository));
+            }
+            for (var files : invokeAll(pool, transferTasks)) {
+                transferred.addAll(files);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        artifacts_ = Collections.unmodifiableList(transferred);
+
+        if (logger.isLoggable(Level.INFO) && !silent()) {
+            logger.info("Prefetched " + transferred.size() + " artifacts for " + dependencies.size()
+                    + " dependencies in " + (System.nanoTime() - start) / 1_000_000L + " ms.");
+        }
+    }
+
+    /**
+     * Configures the operation from a {@link BaseProject}.
+     * <p>
+     * Sets the work directory, the repositories and the properties used to resolve dependency versions
+     * from the project, if not already set.
+     *
+     * @param project the project to configure the operation from
+     * @return this operation instance
+     * @throws NullPointerException if {@code project} is null
+     */
+    public JBangPrefetchOperation fromProject(@NonNull BaseProject project) {
+        ObjectTools.requireNonNull(project, "fromProject");
+        if (workDir_ == null) {
+            workDir_ = project.workDirectory().getAbsoluteFile();
+        }
+        if (repositories_.isEmpty()) {
+            repositories_.addAll(project.repositories());
+        }
+        if (properties_ == null) {
+            properties_ = project.properties();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the local Maven repository to populate.
+     * <p>
+     * Default is the {@code JBANG_REPO} environment variable if set, {@code ~/.m2/repository} otherwise,
+     * like JBang
+     *
+     * @param dir the local repository directory
+     * @return this operation instance
+     * @throws NullPointerException if {@code dir} is null
+     */
+    public JBangPrefetchOperation localRepository(@NonNull File dir) {
+        localRepository_ = ObjectTools.requireNonNull(dir, "localRepository");
+        return this;
+    }
+
+    /**
+     * Sets the local Maven repository to populate.
+     *
+     * @param dir the local repository directory
+     * @return this operation instance
+     * @throws NullPointerException if {@code dir} is null
+     * @see #localRepository(File)
+     */
+    public JBangPrefetchOperation localRepository(@NonNull Path dir) {
+        return localRepository(ObjectTools.requireNonNull(dir, "localRepository").toFile());
+    }
+
+    /**
+     * Retrieves the local Maven repository to populate.
+     *
+     * @return the local repository directory, or {@code null} if not set
+     */
+    public File localRepository() {
+        return localRepository_;
+    }
+
+    /**
+     * Adds the scripts of JBang operations.
+     * <p>
+     * Operations without a script, or with a remote script, are ignored.
+     *
+     * @param operations the operations
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code operations} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code operations} collection is {@code null}
+     */
+    public JBangPrefetchOperation operations(@NonNull Collection<JBangOperation> operations) {
+        for (var op : ObjectTools.requireNotEmpty(operations, "operations")) {
+            var script = op.scriptFile();
+            if (script != null) {
+                scripts_.add(script);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds the scripts of JBang operations.
+     *
+     * @param operations the operations
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code operations} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code operations} array is {@code null}
+     * @see #operations(Collection)
+     */
+    public JBangPrefetchOperation operations(@NonNull JBangOperation... operations) {
+        return operations(List.of(ObjectTools.requireNotEmpty(operations, "operations")));
+    }
+
+    /**
+     * Adds repositories to resolve the dependencies from.
+     * <p>
+     * The repositories declared with {@code //REPOS} in each script are used as well. Default is
+     * {@link Repository#MAVEN_CENTRAL Maven Central} if no repository is set.
+     *
+     * @param repositories the repositories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code repositories} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code repositories} collection is {@code null}
+     */
+    public JBangPrefetchOperation repositories(@NonNull Collection<Repository> repositories) {
+        repositories_.addAll(ObjectTools.requireNotEmpty(repositories, "repositories"));
+        return this;
+    }
+
+    /**
+     * Adds repositories to resolve the dependencies from.
+     *
+     * @param repositories the repositories
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code repositories} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code repositories} array is {@code null}
+     * @see #repositories(Collection)
+     */
+    public JBangPrefetchOperation repositories(@NonNull Repository... repositories) {
+        return repositories(List.of(ObjectTools.requireNotEmpty(repositories, "repositories")));
+    }
+
+    /**
+     * Retrieves the live list of repositories to resolve the dependencies from.
+     *
+     * @return the mutable list of repositories
+     */
+    public List<Repository> repositories() {
+        return repositories_;
+    }
+
+    /**
+     * Adds scripts, relative to the {@link #workDir(File) work directory}.
+     *
+     * @param scripts the script files
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code scripts} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code scripts} collection is {@code null}
+     */
+    public JBangPrefetchOperation scripts(@NonNull Collection<File> scripts) {
+        scripts_.addAll(ObjectTools.requireNotEmpty(scripts, "scripts"));
+        return this;
+    }
+
+    /**
+     * Adds scripts, relative to the {@link #workDir(File) work directory}.
+     *
+     * @param scripts the script files
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code scripts} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code scripts} array is {@code null}
+     */
+    public JBangPrefetchOperation scripts(@NonNull File... scripts) {
+        return scripts(List.of(ObjectTools.requireNotEmpty(scripts, "scripts")));
+    }
+
+    /**
+     * Adds scripts, relative to the {@link #workDir(File) work directory}.
+     *
+     * @param scripts the script paths
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code scripts} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code scripts} array is {@code null}
+     */
+    public JBangPrefetchOperation scripts(@NonNull String... scripts) {
+        for (var script : ObjectTools.requireNotEmpty(scripts, "scripts")) {
+            scripts_.add(new File(script));
+        }
+        return this;
+    }
+
+    /**
+     * Retrieves the live list of scripts.
+     *
+     * @return the mutable list of scripts
+     */
+    public List<File> scripts() {
+        return scripts_;
+    }
+
+    /**
+     * Sets the work directory the scripts are relative to.
+     *
+     * @param dir the work directory
+     * @return this operation instance
+     * @throws NullPointerException if {@code dir} is null
+     */
+    public JBangPrefetchOperation workDir(@NonNull File dir) {
+        workDir_ = ObjectTools.requireNonNull(dir, "workDir");
+        return this;
+    }
+
+    /**
+     * Retrieves the work directory the scripts are relative to.
+     *
+     * @return the work directory, or {@code null} if not set
+     */
+    public File workDir() {
+        return workDir_;
+    }
+
+    /**
+     * Returns the local Maven repository JBang reads from.
+     *
+     * @return the {@code JBANG_REPO} directory if set, {@code ~/.m2/repository} otherwise
+     */
+    static File defaultLocalRepository() {
+        var repo = System.getenv("JBANG_REPO");
+        if (repo != null && !repo.isBlank()) {
+            return new File(repo);
+        }
+        return Path.of(System.getProperty("user.home"), ".m2", "repository").toFile();
+    }
+
+    /**
+     * Returns the repository referenced by a {@code //REPOS} entry.
+     *
+     * @param entry the entry, either a known name such as {@code mavencentral}, {@code google} or
+     *              {@code jitpack}, {@code name=url} or a URL
+     * @return the repository, or {@code null} if the name is not known
+     */
+    static Repository repository(String entry) {
+        var eq = entry.indexOf('=');
+        if (eq >= 0) {
+            return new Repository(entry.substring(eq + 1));
+        }
+        if (entry.contains("://")) {
+            return new Repository(entry);
+        }
+        var location = KNOWN_REPOS.get(entry.toLowerCase(Locale.ROOT));
+        return location != null ? new Repository(location) : null;
+    }
+
+    private static String classifier(Dependency dependency) {
+        return dependency.classifier() != null ? dependency.classifier() : "";
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService pool, List<Callable<T>> tasks) throws Exception {
+        var results = new ArrayList<T>(tasks.size());
+        for (var future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ex ? ex : e;
+            }
+        }
+        return results;
+    }
+
+    private static String key(Dependency dependency) {
+        return dependency.groupId() + ':' + dependency.artifactId() + ':' + dependency.version() + ':'
+                + classifier(dependency) + '@' + type(dependency);
+    }
+
+    private static String type(Dependency dependency) {
+        return dependency.type() != null && !dependency.type().isEmpty() ? dependency.type() : "jar";
+    }
+
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    private Map<String, Set<Repository>> collect() throws ExitStatusException {
+        var dependencies = new LinkedHashMap<String, Set<Repository>>();
+        for (var script : scripts_) {
+            var file = script.isAbsolute() || workDir_ == null ? script : new File(workDir_, script.getPath());
+            ScriptDirectives directives;
+            try {
+                directives = ScriptDirectives.of(file);
+            } catch (IOException e) {
+                if (logger.isLoggable(Level.SEVERE) && !silent()) {
+                    logger.severe("The script could not be read: " + file);
+                }
+                throw new ExitStatusException(ExitStatusException.EXIT_FAILURE);
+            }
+
+            var repositories = new LinkedHashSet<>(repositories_);
+            for (var entry : directives.repos()) {
+                var repository = repository(entry);
+                if (repository != null) {
+                    repositories.add(repository);
+                } else if (logger.isLoggable(Level.WARNING) && !silent()) {
+                    logger.warning("Unknown repository '" + entry + "' in " + file);
+                }
+            }
+            if (repositories.isEmpty()) {
+                repositories.add(Repository.MAVEN_CENTRAL);
+            }
+
+            for (var dep : directives.deps()) {
+                if (!dep.contains("${")) {
+                    dependencies.computeIfAbsent(dep, k -> new LinkedHashSet<>()).addAll(repositories);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    private Map<String, Artifact> resolve(VersionResolution resolution, ArtifactRetriever retriever,
+                                          List<Repository> repositories, String coordinates) {
+        var artifacts = new LinkedHashMap<String, Artifact>();
+        try {
+            var dependency = Dependency.parse(coordinates);
+            if (dependency == null) {
+                if (logger.isLoggable(Level.WARNING) && !silent()) {
+                    logger.warning("Invalid dependency: " + coordinates);
+                }
+                return artifacts;
+            }
+
+            var resolver = new DependencyResolver(resolution, retriever, repositories, dependency);
+            var root = new Dependency(dependency.groupId(), dependency.artifactId(), resolver.resolveVersion(),
+                    dependency.classifier(), dependency.type());
+            artifacts.put(key(root), new Artifact(root, repositories));
+            if (!"pom".equals(type(root))) {
+                for (var transitive : resolver.getAllDependencies(Scope.compile, Scope.runtime)) {
+                    artifacts.putIfAbsent(key(transitive), new Artifact(transitive, repositories));
+                }
+            }
+        } catch (RuntimeException e) {
+            if (logger.isLoggable(Level.WARNING) && !silent()) {
+                logger.warning("The dependency could not be resolved: " + coordinates + " (" + e.getMessage() + ')');
+            }
+        }
+        return artifacts;
+    }
+
+    private List<File> transfer(VersionResolution resolution, ArtifactRetriever retriever, Artifact artifact,
+                                File localRepository) {
+        var dependency = artifact.dependency();
+        var version = String.valueOf(dependency.version());
+        var dir = new File(localRepository, dependency.groupId().replace('.', File.separatorChar)
+                + File.separatorChar + dependency.artifactId() + File.separatorChar + version);
+        var types = "pom".equals(type(dependency)) ? List.of("pom") : List.of(type(dependency), "pom");
+
+        var files = new ArrayList<File>(types.size());
+        for (var type : types) {
+            var classifier = "pom".equals(type) ? "" : classifier(dependency);
+            var file = new File(dir, dependency.artifactId() + '-' + version
+                    + (classifier.isEmpty() ? "" : '-' + classifier) + '.' + type);
+            if (file.isFile()) {
+                continue;
+            }
+            try {
+                if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+                    throw new IllegalStateException("could not create " + dir);
+                }
+                new DependencyResolver(resolution, retriever, artifact.repositories(),
+                        new Dependency(dependency.groupId(), dependency.artifactId(), dependency.version(),
+                                classifier, type))
+                        .transferIntoDirectory(dir);
+                if (file.isFile()) {
+                    files.add(file);
+                }
+            } catch (RuntimeException e) {
+                if (logger.isLoggable(Level.WARNING) && !silent()) {
+                    logger.warning("The artifact could not be transferred: " + file.getName() + " ("
+                            + e.getMessage() + ')');
+                }
+            }
+        }
+        return files;
+    }
+
+    private record Artifact(Dependency dependency, List<Repository> repositories) {
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A script {@link JBangOperation#start() started} in the background, such as a service used by
+ * integration tests.
+ * <p>
+ * The script runs until it exits or is {@link #stop() stopped}. Scripts still running when the build
+ * ends are stopped as well.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+public final class JBangProcess implements AutoCloseable {
+
+    private static final Set<JBangProcess> RUNNING = ConcurrentHashMap.newKeySet();
+    private final ScriptProcess.Execution execution_;
+    private final Duration readyTime_;
+    private JBangResult result_;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(JBangProcess::stopAll, "jbang-process-shutdown"));
+    }
+
+    /**
+     * Creates a handle for a started script, stopped when the build ends.
+     *
+     * @param execution the running process
+     * @param readyTime the time elapsed until the script was ready
+     */
+    JBangProcess(ScriptProcess.Execution execution, Duration readyTime) {
+        execution_ = execution;
+        readyTime_ = readyTime;
+        RUNNING.add(this);
+    }
+
+    /**
+     * Stops the script, like {@link #stop()}.
+     * <p>
+     * If the calling thread is interrupted, its interrupt status is set and the processes are left to the
+     * end of the build.
+     */
+    @Override
+    public void close() {
+        try {
+            stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Determines whether the script is still running.
+     *
+     * @return {@code true} if the script is running, {@code false} otherwise
+     */
+    public boolean isAlive() {
+        return execution_.process().isAlive();
+    }
+
+    /**
+     * Returns the process ID of the JBang or {@code java} process running the script.
+     *
+     * @return the process ID
+     */
+    public long pid() {
+        return execution_.process().pid();
+    }
+
+    /**
+     * Returns the time elapsed from the start of the script until it was ready.
+     *
+     * @return the elapsed time
+     */
+    public Duration readyTime() {
+        return readyTime_;
+    }
+
+    /**
+     * Stops the script, together with all the processes it forked.
+     * <p>
+     * The processes are given the operation's {@link JBangOperation#terminationGracePeriod(Duration)
+     * grace period} to exit before being killed. Stopping a script that already exited only collects its
+     * result, and stopping it again returns the same result.
+     *
+     * @return the result, reporting the number of processes that were {@link JBangResult#reaped() terminated}
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    public synchronized JBangResult stop() throws InterruptedException {
+        if (result_ == null) {
+            try {
+                result_ = execution_.terminate();
+            } finally {
+                RUNNING.remove(this);
+            }
+        }
+        return result_;
+    }
+
+    private static void stopAll() {
+        for (var process : List.copyOf(RUNNING)) {
+            try {
+                process.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The result of a JBang execution.
+ * <p>
+ * Besides the exit status, the result reports how long the execution took, and when available, how
+ * much output it produced and the resources used by its process tree. Output is only measured when it
+ * is captured rather than {@link JBangOperation#inheritIO(boolean) inherited}, and resources are only
+ * sampled for scripts running in their own process.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+public final class JBangResult {
+
+    private final boolean cached_;
+    private final Duration cpuTime_;
+    private final Duration duration_;
+    private final int exitCode_;
+    private final long outputBytes_;
+    private final long peakRss_;
+    private final int reaped_;
+    private final boolean skipped_;
+    private final List<String> tail_;
+    private final Duration timeToFirstOutput_;
+    private final boolean timedOut_;
+
+    /**
+     * Creates a new result.
+     *
+     * @param exitCode the process exit code
+     * @param timedOut {@code true} if the process was terminated because it timed out
+     */
+    JBangResult(int exitCode, boolean timedOut) {
+        this(exitCode, timedOut, false, false, Duration.ZERO, null, -1L, null, -1L, 0, List.of());
+    }
+
+    /**
+     * Creates a new result with output and resource measurements.
+     *
+     * @param exitCode          the process exit code
+     * @param timedOut          {@code true} if the process was terminated because it timed out
+     * @param timeToFirstOutput the time until the first output, or {@code null} if unknown
+     * @param outputBytes       the number of output bytes, or {@code -1} if unknown
+     * @param cpuTime           the CPU time of the process tree, or {@code null} if unknown
+     * @param peakRss           the peak resident set size of the process tree in bytes, or {@code -1} if unknown
+     */
+    JBangResult(int exitCode, boolean timedOut, Duration timeToFirstOutput, long outputBytes, Duration cpuTime,
+                long peakRss) {
+        this(exitCode, timedOut, false, false, Duration.ZERO, timeToFirstOutput, outputBytes, cpuTime, peakRss, 0,
+                List.of());
+    }
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    private JBangResult(int exitCode, boolean timedOut, boolean skipped, boolean cached, Duration duration,
+                        Duration timeToFirstOutput, long outputBytes, Duration cpuTime, long peakRss, int reaped,
+                        List<String> tail) {
+        exitCode_ = exitCode;
+        timedOut_ = timedOut;
+        skipped_ = skipped;
+        cached_ = cached;
+        duration_ = duration;
+        timeToFirstOutput_ = timeToFirstOutput;
+        outputBytes_ = outputBytes;
+        cpuTime_ = cpuTime;
+        peakRss_ = peakRss;
+        reaped_ = reaped;
+        tail_ = tail;
+    }
+
+    /**
+     * Creates a result for an execution that was replayed from the result cache.
+     *
+     * @param exitCode    the cached exit code
+     * @param outputBytes the number of cached output bytes
+     * @return the result
+     */
+    static JBangResult cached(int exitCode, long outputBytes) {
+        return new JBangResult(exitCode, false, false, true, Duration.ZERO, null, outputBytes, null, -1L, 0,
+                List.of());
+    }
+
+    /**
+     * Creates a result for an execution that was skipped because it was up-to-date.
+     *
+     * @return the result
+     */
+    static JBangResult skipped() {
+        return new JBangResult(0, false, true, false, Duration.ZERO, null, -1L, null, -1L, 0, List.of());
+    }
+
+    /**
+     * Returns the CPU time used by the process tree, sampled while it ran.
+     *
+     * @return the CPU time, or {@code null} if it is not available
+     */
+    public Duration cpuTime() {
+        return cpuTime_;
+    }
+
+    /**
+     * Returns the wall-clock duration of the execution, including the resolution of the script
+     * when launched directly.
+     *
+     * @return the duration
+     */
+    public Duration duration() {
+        return duration_;
+    }
+
+    /**
+     * Returns the exit code of the JBang process.
+     *
+     * @return the exit code
+     */
+    public int exitCode() {
+        return exitCode_;
+    }
+
+    /**
+     * Determines whether the exit code and output were replayed from the result cache.
+     *
+     * @return {@code true} if no process was started, {@code false} otherwise
+     * @see JBangOperation#resultCache(boolean)
+     */
+    public boolean isCached() {
+        return cached_;
+    }
+
+    /**
+     * Determines whether the execution completed successfully.
+     *
+     * @return {@code true} if the process did not time out and exited with {@code 0}, {@code false} otherwise
+     */
+    public boolean isSuccess() {
+        return !timedOut_ && exitCode_ == 0;
+    }
+
+    /**
+     * Determines whether the execution was skipped because the operation was up-to-date.
+     *
+     * @return {@code true} if no process was started, {@code false} otherwise
+     * @see JBangOperation#outputs()
+     */
+    public boolean isSkipped() {
+        return skipped_;
+    }
+
+    /**
+     * Returns the number of bytes written to {@code stdout} and {@code stderr}.
+     *
+     * @return the number of bytes, or {@code -1} if the output was not captured
+     */
+    public long outputBytes() {
+        return outputBytes_;
+    }
+
+    /**
+     * Returns the peak resident set size of the process tree, sampled while it ran.
+     * <p>
+     * Only available on Linux.
+     *
+     * @return the peak resident set size in bytes, or {@code -1} if it is not available
+     */
+    public long peakRss() {
+        return peakRss_;
+    }
+
+    /**
+     * Returns the number of processes terminated because the execution timed out.
+     * <p>
+     * The count includes the JBang or {@code java} process and all of its descendants, such as workers
+     * forked by the script, that were still running when the timeout expired.
+     *
+     * @return the number of terminated processes, {@code 0} if the execution did not time out
+     * @see JBangOperation#terminationGracePeriod(Duration)
+     */
+    public int reaped() {
+        return reaped_;
+    }
+
+    /**
+     * Returns the last output lines of a failed execution.
+     * <p>
+     * The lines are only kept when the execution failed or timed out, and the operation
+     * {@link JBangOperation#tailLines(int) captures a tail} of the output it pumps.
+     *
+     * @return the last lines of {@code stdout} and {@code stderr}, oldest first, or an empty list
+     */
+    public List<String> tail() {
+        return tail_;
+    }
+
+    /**
+     * Returns the time elapsed from the start of the process until its first output.
+     *
+     * @return the elapsed time, or {@code null} if there was no output or it was not captured
+     */
+    public Duration timeToFirstOutput() {
+        return timeToFirstOutput_;
+    }
+
+    /**
+     * Determines whether the process was terminated because it timed out.
+     *
+     * @return {@code true} if the process timed out, {@code false} otherwise
+     */
+    public boolean timedOut() {
+        return timedOut_;
+    }
+
+    @Override
+    public String toString() {
+        return "JBangResult{exitCode=" + exitCode_ + ", timedOut=" + timedOut_ + ", skipped=" + skipped_
+                + ", cached=" + cached_ + ", duration=" + duration_ + ", timeToFirstOutput=" + timeToFirstOutput_
+                + ", outputBytes=" + outputBytes_ + ", cpuTime=" + cpuTime_ + ", peakRss=" + peakRss_
+                + ", reaped=" + reaped_ + '}';
+    }
+
+    /**
+     * Returns a copy of this result with the given wall-clock duration.
+     *
+     * @param duration the duration
+     * @return the result
+     */
+    JBangResult withDuration(Duration duration) {
+        return new JBangResult(exitCode_, timedOut_, skipped_, cached_, duration, timeToFirstOutput_, outputBytes_,
+                cpuTime_, peakRss_, reaped_, tail_);
+    }
+
+    /**
+     * Returns a copy of this result with the given number of terminated processes.
+     *
+     * @param reaped the number of processes terminated after a timeout
+     * @return the result
+     */
+    JBangResult withReaped(int reaped) {
+        return new JBangResult(exitCode_, timedOut_, skipped_, cached_, duration_, timeToFirstOutput_, outputBytes_,
+                cpuTime_, peakRss_, reaped, tail_);
+    }
+
+    /**
+     * Returns a copy of this result with the given output tail.
+     *
+     * @param tail the last output lines
+     * @return the result
+     */
+    JBangResult withTail(List<String> tail) {
+        return new JBangResult(exitCode_, timedOut_, skipped_, cached_, duration_, timeToFirstOutput_, outputBytes_,
+                cpuTime_, peakRss_, reaped_, List.copyOf(tail));
+    }
+}
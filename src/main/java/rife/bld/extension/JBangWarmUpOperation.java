@@ -0,0 +1,255 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import rife.bld.extension.tools.ObjectTools;
+import rife.bld.operations.AbstractOperation;
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds JBang scripts in the background, ahead of their execution.
+ * <p>
+ * {@link #execute() Executing} the operation starts a {@code jbang build} of each script, at most
+ * {@link #concurrency() concurrency} at the same time, and returns without waiting for them. Scripts
+ * {@link JBangOperation#directLaunch(boolean) launched directly} have their launch information resolved
+ * as well. A later {@link JBangOperation#execute() execution} of the same script, with the same JBang
+ * arguments, waits for its warm-up to complete instead of compiling the script again, so that compilation
+ * happens off the critical path of the build.
+ * <p>
+ * A failed warm-up is only logged, the script being built again, and its errors reported, when executed.
+ * The operations must not be modified while their warm-up is running.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+@SuppressFBWarnings(
+        value = "EI_EXPOSE_REP",
+        justification = "Builder pattern intentionally exposes mutable collections; callers may add to them directly"
+)
+public class JBangWarmUpOperation extends AbstractOperation<JBangWarmUpOperation> {
+
+    private static final Map<String, CompletableFuture<Boolean>> BUILDS = new ConcurrentHashMap<>();
+    private static final Logger logger = Logger.getLogger(JBangWarmUpOperation.class.getName());
+    private final List<JBangOperation> operations_ = new ArrayList<>();
+    private int concurrency_ = Runtime.getRuntime().availableProcessors();
+    private List<CompletableFuture<Boolean>> warmUps_ = List.of();
+
+    /**
+     * Waits for the warm-ups started by the last execution to complete.
+     *
+     * @return {@code true} if all the scripts were built, {@code false} otherwise
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    public boolean await() throws InterruptedException {
+        var built = true;
+        for (var warmUp : warmUps_) {
+            try {
+                built &= warmUp.get();
+            } catch (ExecutionException e) {
+                built = false;
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Sets the maximum number of scripts to build at the same time.
+     * <p>
+     * Default is the number of available processors
+     *
+     * @param concurrency the maximum number of concurrent builds
+     * @return this operation instance
+     * @throws IllegalArgumentException if {@code concurrency} is less than {@code 1}
+     */
+    public JBangWarmUpOperation concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        concurrency_ = concurrency;
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of scripts to build at the same time.
+     *
+     * @return the maximum number of concurrent builds
+     */
+    public int concurrency() {
+        return concurrency_;
+    }
+
+    /**
+     * Performs the operation, starting the warm-ups without waiting for them.
+     * <p>
+     * Operations without a script are ignored, and a script already warming up with the same JBang
+     * arguments is not built twice.
+     *
+     * @throws Exception           if an error occurs
+     * @throws ExitStatusException if the work directory or JBang home of an operation is invalid
+     * @see #await()
+     */
+    @Override
+    public void execute() throws Exception {
+        warmUps_ = List.of();
+        var templates = new ArrayList<JBangOperation>(operations_.size());
+        for (var op : operations_) {
+            if (op.script() != null) {
+                var template = op.copy();
+                template.checkWorkDir();
+                templates.add(template);
+            }
+        }
+        if (templates.isEmpty()) {
+            return;
+        }
+
+        if (logger.isLoggable(Level.INFO) && !silent()) {
+            logger.info("Warming up " + templates.size() + " JBang scripts.");
+        }
+
+        var counter = new AtomicInteger();
+        var pool = Executors.newFixedThreadPool(Math.min(concurrency_, templates.size()), r -> {
+            var thread = new Thread(r, "jbang-warmup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            var warmUps = new ArrayList<CompletableFuture<Boolean>>(templates.size());
+            for (var template : templates) {
+                warmUps.add(submit(template, template.findJBangExec(), pool));
+            }
+            warmUps_ = List.copyOf(warmUps);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Adds operations whose scripts should be built.
+     *
+     * @param operations the operations
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code operations} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code operations} collection is {@code null}
+     */
+    public JBangWarmUpOperation operations(@NonNull Collection<JBangOperation> operations) {
+        operations_.addAll(ObjectTools.requireNotEmpty(operations, "operations"));
+        return this;
+    }
+
+    /**
+     * Adds operations whose scripts should be built.
+     *
+     * @param operations the operations
+     * @return this operation instance
+     * @throws IllegalArgumentException if the {@code operations} elements are {@code null} or empty
+     * @throws NullPointerException     if the {@code operations} array is {@code null}
+     */
+    public JBangWarmUpOperation operations(@NonNull JBangOperation... operations) {
+        operations_.addAll(List.of(ObjectTools.requireNotEmpty(operations, "operations")));
+        return this;
+    }
+
+    /**
+     * Retrieves the live collection of operations.
+     *
+     * @return the mutable list of operations
+     */
+    public List<JBangOperation> operations() {
+        return operations_;
+    }
+
+    /**
+     * Waits for the warm-up of an operation's script, if one was started.
+     *
+     * @param op         the operation
+     * @param jBangExec  the JBang executable
+     * @param scriptFile the script file, or {@code null} if not a local file
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    static void await(JBangOperation op, String jBangExec, File scriptFile) throws InterruptedException {
+        var warmUp = BUILDS.get(key(op, jBangExec, scriptFile));
+        if (warmUp == null) {
+            return;
+        }
+        if (!warmUp.isDone() && logger.isLoggable(Level.FINE) && !op.silent()) {
+            logger.fine("Waiting for the warm-up of " + op.script());
+        }
+        try {
+            warmUp.get();
+        } catch (ExecutionException e) {
+            // the script is built again by the execution
+        }
+    }
+
+    private static boolean build(JBangOperation op, String jBangExec) throws Exception {
+        var scriptFile = op.scriptFile();
+        return op.isDirectLaunch() && scriptFile != null
+                ? LaunchCache.resolve(op, jBangExec, scriptFile) != null
+                : LaunchCache.build(op, jBangExec, op.script());
+    }
+
+    private static String key(JBangOperation op, String jBangExec, File scriptFile) {
+        return new Fingerprint()
+                .add(jBangExec)
+                .add(op.workDir().getAbsolutePath())
+                .add(scriptFile != null ? scriptFile.getAbsolutePath() : op.script())
+                .add(LaunchCache.buildArgs(op.launchArgs()))
+                .hex();
+    }
+
+    private CompletableFuture<Boolean> submit(JBangOperation op, String jBangExec, Executor executor) {
+        var fresh = new CompletableFuture<Boolean>();
+        var warmUp = BUILDS.compute(key(op, jBangExec, op.scriptFile()),
+                (key, previous) -> previous != null && !previous.isDone() ? previous : fresh);
+        if (warmUp == fresh) {
+            executor.execute(() -> {
+                try {
+                    var built = build(op, jBangExec);
+                    if (!built && logger.isLoggable(Level.WARNING) && !silent()) {
+                        logger.warning("Could not warm up " + op.script() + '.');
+                    }
+                    fresh.complete(built);
+                } catch (Exception e) {
+                    if (logger.isLoggable(Level.WARNING) && !silent()) {
+                        logger.warning("Could not warm up " + op.script() + ": " + e.getMessage());
+                    }
+                    fresh.completeExceptionally(e);
+                } finally {
+                    fresh.complete(false);
+                }
+            });
+        }
+        return warmUp;
+    }
+}
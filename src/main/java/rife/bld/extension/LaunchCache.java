@@ -0,0 +1,375 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves and caches how to launch a script directly with {@code java}, bypassing the JBang launcher.
+ * <p>
+ * The script is built and inspected once with {@code jbang build} and {@code jbang info tools}.
+ * The resulting java executable, classpath, main class and runtime options, declared with
+ * {@code //JAVA_OPTIONS}, {@code //RUNTIME_OPTIONS} or {@code //PREVIEW}, are stored in a properties file under
+ * the {@link JBangOperation#cacheDirectory() cache directory}, keyed by a fingerprint of the script,
+ * the {@link ScriptDirectives sources} it includes, and the JBang arguments used to build it. Scripts
+ * declaring {@code //JAVAAGENT} are always run through JBang, which resolves and attaches the agents.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class LaunchCache {
+
+    private static final String CLASSPATH = "classpath";
+    private static final String ENABLE_PREVIEW = "--enable-preview";
+    private static final List<String> JAVA_OPTIONS_FLAGS = List.of("-R", "--runtime-option", "--java-options");
+    private static final String JAVA = "java";
+    private static final String MAIN_CLASS = "mainClass";
+    private static final String RUNTIME_OPTIONS = "runtimeOptions";
+    private static final Pattern STRING_PATTERN = Pattern.compile("\"((?:\\\\.|[^\"\\\\])*)\"");
+    private static final Pattern VERSION_PATTERN = Pattern.compile("JAVA_VERSION=\"([^\"]+)\"");
+    private static final Logger logger = Logger.getLogger(JBangOperation.class.getName());
+
+    private LaunchCache() {
+        // no-op
+    }
+
+    /**
+     * Returns the {@code java} command line for a resolved script.
+     *
+     * @param op           the operation
+     * @param launch       the launch information
+     * @param extraOptions additional Java options
+     * @return the command line, excluding the script arguments
+     */
+    static List<String> command(JBangOperation op, Launch launch, List<String> extraOptions) {
+        var command = new ArrayList<String>();
+        command.add(launch.java());
+        command.addAll(launch.runtimeOptions());
+        command.addAll(javaOptions(op.jBangArgs()));
+        command.addAll(extraOptions);
+        command.add("-cp");
+        command.add(launch.classpath());
+        command.add(launch.mainClass());
+        return command;
+    }
+
+    /**
+     * Extracts the runtime Java options ({@code -R}, {@code --runtime-option} or {@code --java-options}) from
+     * JBang arguments.
+     *
+     * @param jBangArgs the JBang arguments
+     * @return the Java options
+     */
+    static List<String> javaOptions(List<String> jBangArgs) {
+        var options = new ArrayList<String>();
+        for (var i = 0; i < jBangArgs.size(); i++) {
+            var arg = jBangArgs.get(i);
+            if (JAVA_OPTIONS_FLAGS.contains(arg)) {
+                if (i + 1 < jBangArgs.size()) {
+                    options.add(jBangArgs.get(++i));
+                }
+            } else {
+                var option = inlineJavaOption(arg);
+                if (option != null) {
+                    options.add(option);
+                }
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Returns the JBang arguments that affect how a script is built, excluding runtime Java options.
+     *
+     * @param jBangArgs the JBang arguments
+     * @return the build arguments
+     */
+    static List<String> buildArgs(List<String> jBangArgs) {
+        var args = new ArrayList<String>();
+        for (var i = 0; i < jBangArgs.size(); i++) {
+            var arg = jBangArgs.get(i);
+            if (JAVA_OPTIONS_FLAGS.contains(arg)) {
+                i++;
+            } else if (inlineJavaOption(arg) == null) {
+                args.add(arg);
+            }
+        }
+        return args;
+    }
+
+    /**
+     * Builds a script with JBang, so that it is compiled and its dependencies are resolved.
+     *
+     * @param op        the operation
+     * @param jBangExec the JBang executable
+     * @param script    the script file or URL
+     * @return {@code true} if the script was built, {@code false} otherwise
+     * @throws Exception if an error occurs
+     */
+    static boolean build(JBangOperation op, String jBangExec, String script) throws Exception {
+        var build = new ArrayList<String>();
+        build.add(jBangExec);
+        build.add("build");
+        build.addAll(buildArgs(op.launchArgs()));
+        build.add(script);
+        return run(op, build, new ArrayList<>()) == 0;
+    }
+
+    /**
+     * Returns the string values of an array in the JSON output of {@code jbang info}.
+     * <p>
+     * Whole string elements are matched, so that a {@code ]} inside a value does not end the array.
+     *
+     * @param json the JSON output
+     * @param name the array's name
+     * @return the values, or {@code null} if there is no such array of strings
+     */
+    static List<String> arrayValues(String json, String name) {
+        var array = Pattern.compile('"' + Pattern.quote(name) + "\"\\s*:\\s*\\[\\s*((?:" + STRING_PATTERN.pattern()
+                + "\\s*(?:,\\s*)?)*)]").matcher(json);
+        if (!array.find()) {
+            return null;
+        }
+        var values = new ArrayList<String>();
+        var matcher = STRING_PATTERN.matcher(array.group(1));
+        while (matcher.find()) {
+            values.add(unescape(matcher.group(1)));
+        }
+        return values;
+    }
+
+    private static Launch info(JBangOperation op, String jBangExec, File script,
+                               ScriptDirectives directives) throws Exception {
+        var buildArgs = buildArgs(op.launchArgs());
+        if (!build(op, jBangExec, script.getAbsolutePath())) {
+            return null;
+        }
+
+        var info = new ArrayList<String>();
+        info.add(jBangExec);
+        info.add("--quiet");
+        info.add("info");
+        info.add("tools");
+        info.addAll(buildArgs);
+        info.add(script.getAbsolutePath());
+        var output = new ArrayList<String>();
+        if (run(op, info, output) != 0) {
+            return null;
+        }
+
+        var json = String.join("\n", output);
+        var jar = stringValue(json, "applicationJar");
+        var mainClass = stringValue(json, MAIN_CLASS);
+        var jdk = stringValue(json, "availableJdkPath");
+        if (jar == null || mainClass == null || jdk == null) {
+            return null;
+        }
+
+        var classpath = new ArrayList<String>();
+        classpath.add(jar);
+        var deps = arrayValues(json, "resolvedDependencies");
+        if (deps != null) {
+            classpath.addAll(deps);
+        }
+
+        // older JBang versions do not report the runtime options, read them from the directives instead
+        var runtimeOptions = arrayValues(json, RUNTIME_OPTIONS);
+        if (runtimeOptions == null) {
+            runtimeOptions = directives != null ? new ArrayList<>(directives.javaOptions()) : new ArrayList<>();
+        }
+        if (directives != null && directives.isPreview() && !runtimeOptions.contains(ENABLE_PREVIEW)) {
+            runtimeOptions.add(0, ENABLE_PREVIEW);
+        }
+
+        var java = Path.of(jdk, "bin", JBangOperation.isWindows() ? "java.exe" : "java").toString();
+        return new Launch(java, String.join(File.pathSeparator, classpath), mainClass, List.copyOf(runtimeOptions));
+    }
+
+    private static String inlineJavaOption(String arg) {
+        if (arg.startsWith("-R") && arg.length() > 2) {
+            return arg.substring(2);
+        }
+        for (var flag : JAVA_OPTIONS_FLAGS) {
+            if (arg.startsWith(flag + '=')) {
+                return arg.substring(flag.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isValid(Launch launch) {
+        if (launch.java() == null || launch.classpath() == null || launch.mainClass() == null
+                || launch.runtimeOptions() == null || !new File(launch.java()).canExecute()) {
+            return false;
+        }
+        for (var entry : launch.classpath().split(File.pathSeparator)) {
+            if (!new File(entry).exists()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolves the launch information of a script, using the cached information if still valid.
+     *
+     * @param op        the operation
+     * @param jBangExec the JBang executable
+     * @param script    the script file
+     * @return the launch information, or {@code null} if it could not be resolved or the script declares
+     * Java agents
+     * @throws Exception if an error occurs
+     */
+    static Launch resolve(JBangOperation op, String jBangExec, File script) throws Exception {
+        ScriptDirectives directives = null;
+        if (ScriptDirectives.isSource(script)) {
+            try {
+                directives = ScriptDirectives.of(script);
+            } catch (IOException e) {
+                // reported by JBang when building the script
+            }
+        }
+        if (directives != null && !directives.javaAgents().isEmpty()) {
+            if (logger.isLoggable(Level.WARNING) && !op.silent()) {
+                logger.warning("Could not launch " + script.getPath()
+                        + " directly, its Java agents are only attached by JBang, running through JBang instead.");
+            }
+            return null;
+        }
+
+        var key = new Fingerprint()
+                .add(jBangExec)
+                .add(script.getAbsolutePath())
+                .addScript(script)
+                .add(buildArgs(op.launchArgs()))
+                .hex();
+        var file = new File(new File(op.effectiveCacheDirectory(), "launch"), key + ".properties");
+
+        if (file.isFile()) {
+            var props = new Properties();
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                props.load(reader);
+            }
+            var options = props.getProperty(RUNTIME_OPTIONS);
+            var launch = new Launch(props.getProperty(JAVA), props.getProperty(CLASSPATH),
+                    props.getProperty(MAIN_CLASS), options == null ? null
+                    : options.isEmpty() ? List.of() : List.of(options.split("\n")));
+            if (isValid(launch)) {
+                return launch;
+            }
+        }
+
+        var launch = info(op, jBangExec, script, directives);
+        if (launch == null) {
+            if (logger.isLoggable(Level.WARNING) && !op.silent()) {
+                logger.warning("Could not resolve a direct launch for " + script.getPath()
+                        + ", running through JBang instead.");
+            }
+            return null;
+        }
+
+        var props = new Properties();
+        props.setProperty(JAVA, launch.java());
+        props.setProperty(CLASSPATH, launch.classpath());
+        props.setProperty(MAIN_CLASS, launch.mainClass());
+        props.setProperty(RUNTIME_OPTIONS, String.join("\n", launch.runtimeOptions()));
+        Files.createDirectories(file.getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            props.store(writer, script.getAbsolutePath());
+        } catch (IOException e) {
+            if (logger.isLoggable(Level.WARNING) && !op.silent()) {
+                logger.warning("Could not write the launch cache: " + e.getMessage());
+            }
+        }
+        return launch;
+    }
+
+    private static int run(JBangOperation op, List<String> command, List<String> output) throws Exception {
+        if (logger.isLoggable(Level.FINE) && !op.silent()) {
+            logger.fine(String.join(" ", command));
+        }
+        var result = new ScriptProcess(command)
+                .workDir(op.workDir())
+                .timeout(op.timeoutDuration())
+                .env(op.env())
+                .outputConsumer(output::add)
+                .run();
+        return result.timedOut() ? -1 : result.exitCode();
+    }
+
+    private static String stringValue(String json, String name) {
+        var matcher = Pattern.compile('"' + Pattern.quote(name) + "\"\\s*:\\s*\"((?:\\\\.|[^\"\\\\])*)\"")
+                .matcher(json);
+        return matcher.find() ? unescape(matcher.group(1)) : null;
+    }
+
+    private static String unescape(String value) {
+        return value.replace("\\\\", "\u0000")
+                .replace("\\\"", "\"")
+                .replace("\\/", "/")
+                .replace('\u0000', '\\');
+    }
+
+    /**
+     * The resolved launch information of a script.
+     *
+     * @param java           the java executable
+     * @param classpath      the classpath
+     * @param mainClass      the main class
+     * @param runtimeOptions the JVM options declared by the script
+     */
+    record Launch(String java, String classpath, String mainClass, List<String> runtimeOptions) {
+
+        /**
+         * Returns the feature version of the JDK the java executable belongs to.
+         * <p>
+         * The version is read from the JDK's {@code release} file, without starting a JVM.
+         *
+         * @return the feature version, or {@code 0} if unknown
+         */
+        int javaVersion() {
+            var release = Path.of(java).getParent().resolveSibling("release");
+            try {
+                for (var line : Files.readAllLines(release, StandardCharsets.UTF_8)) {
+                    var matcher = VERSION_PATTERN.matcher(line);
+                    if (matcher.matches()) {
+                        var version = matcher.group(1);
+                        if (version.startsWith("1.")) {
+                            version = version.substring(2);
+                        }
+                        return Integer.parseInt(version.split("[.+-]", 2)[0]);
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // unknown version
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * An output stream that splits the bytes written to it into lines and passes them to a consumer.
+ * <p>
+ * Line terminators ({@code \n} or {@code \r\n}) are not included in the lines. A trailing partial
+ * line is passed to the consumer when the stream is closed.
+ * <p>
+ * The stream also counts the bytes written to it, and the time elapsed from its creation until the
+ * first byte was written. Lines can be added to an {@link OutputTail output tail} before being decoded.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class LineOutputStream extends OutputStream {
+
+    private final Charset charset_;
+    private final Consumer<String> consumer_;
+    private final long created_ = System.nanoTime();
+    private final OutputTail tail_;
+    private byte[] buffer_ = new byte[256];
+    private long bytes_;
+    private int count_;
+    private long firstWrite_;
+
+    /**
+     * Creates a new stream.
+     *
+     * @param consumer the consumer receiving the lines
+     * @param charset  the charset used to decode the lines
+     */
+    LineOutputStream(Consumer<String> consumer, Charset charset) {
+        this(consumer, charset, null);
+    }
+
+    /**
+     * Creates a new stream, adding its lines to an output tail.
+     *
+     * @param consumer the consumer receiving the lines
+     * @param charset  the charset used to decode the lines
+     * @param tail     the output tail, or {@code null}
+     */
+    LineOutputStream(Consumer<String> consumer, Charset charset, OutputTail tail) {
+        consumer_ = consumer;
+        charset_ = charset;
+        tail_ = tail;
+    }
+
+    /**
+     * Returns the number of bytes written to the stream.
+     *
+     * @return the number of bytes
+     */
+    synchronized long bytes() {
+        return bytes_;
+    }
+
+    /**
+     * Returns the time elapsed from the creation of the stream until the first byte was written.
+     *
+     * @return the elapsed time, or {@code null} if nothing was written
+     */
+    synchronized Duration timeToFirstOutput() {
+        return bytes_ == 0 ? null : Duration.ofNanos(firstWrite_ - created_);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (count_ > 0) {
+            emit();
+        }
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        count(1);
+        if (b == '\n') {
+            emit();
+        } else {
+            append((byte) b);
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        count(len);
+        var start = off;
+        var end = off + len;
+        for (var i = off; i < end; i++) {
+            if (b[i] == '\n') {
+                append(b, start, i - start);
+                emit();
+                start = i + 1;
+            }
+        }
+        append(b, start, end - start);
+    }
+
+    private void append(byte b) {
+        ensureCapacity(count_ + 1);
+        buffer_[count_++] = b;
+    }
+
+    private void append(byte[] b, int off, int len) {
+        if (len > 0) {
+            ensureCapacity(count_ + len);
+            System.arraycopy(b, off, buffer_, count_, len);
+            count_ += len;
+        }
+    }
+
+    private void count(int len) {
+        if (bytes_ == 0 && len > 0) {
+            firstWrite_ = System.nanoTime();
+        }
+        bytes_ += len;
+    }
+
+    private void emit() {
+        var length = count_;
+        if (length > 0 && buffer_[length - 1] == '\r') {
+            length--;
+        }
+        count_ = 0;
+        if (tail_ != null) {
+            tail_.add(buffer_, 0, length);
+        }
+        consumer_.accept(new String(buffer_, 0, length, charset_));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer_.length) {
+            buffer_ = Arrays.copyOf(buffer_, Math.max(capacity, buffer_.length * 2));
+        }
+    }
+}
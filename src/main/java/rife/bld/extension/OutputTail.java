@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the last output lines of a script, for failure diagnostics.
+ * <p>
+ * The lines are stored as encoded bytes in a ring buffer allocated once, so that adding a line never
+ * allocates, however much output the script writes. The oldest lines are dropped once either the maximum
+ * number of lines or of bytes is reached, and a line longer than the buffer only keeps its end.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class OutputTail {
+
+    private final byte[] data_;
+    private final int[] lengths_;
+    private final int[] starts_;
+    private int count_;
+    private int first_;
+    private int head_;
+    private int size_;
+
+    /**
+     * Creates a new tail.
+     *
+     * @param maxLines the maximum number of lines kept
+     * @param maxBytes the maximum number of bytes kept
+     */
+    OutputTail(int maxLines, int maxBytes) {
+        data_ = new byte[maxBytes];
+        lengths_ = new int[maxLines];
+        starts_ = new int[maxLines];
+    }
+
+    /**
+     * Adds a line, without its terminator.
+     *
+     * @param b   the line bytes
+     * @param off the offset of the line
+     * @param len the length of the line
+     */
+    synchronized void add(byte[] b, int off, int len) {
+        if (len > data_.length) {
+            off += len - data_.length;
+            len = data_.length;
+        }
+        while (count_ > 0 && (count_ == starts_.length || size_ + len > data_.length)) {
+            size_ -= lengths_[first_];
+            first_ = (first_ + 1) % starts_.length;
+            count_--;
+        }
+
+        var slot = (first_ + count_) % starts_.length;
+        starts_[slot] = head_;
+        lengths_[slot] = len;
+        var end = Math.min(len, data_.length - head_);
+        System.arraycopy(b, off, data_, head_, end);
+        System.arraycopy(b, off + end, data_, 0, len - end);
+        head_ = (head_ + len) % data_.length;
+        size_ += len;
+        count_++;
+    }
+
+    /**
+     * Decodes the lines kept, oldest first.
+     *
+     * @param charset the charset used to decode the lines
+     * @return the lines
+     */
+    synchronized List<String> lines(Charset charset) {
+        var lines = new ArrayList<String>(count_);
+        for (var i = 0; i < count_; i++) {
+            var slot = (first_ + i) % starts_.length;
+            var start = starts_[slot];
+            var len = lengths_[slot];
+            if (start + len <= data_.length) {
+                lines.add(new String(data_, start, len, charset));
+            } else {
+                var line = new byte[len];
+                var end = data_.length - start;
+                System.arraycopy(data_, start, line, 0, end);
+                System.arraycopy(data_, 0, line, end, len - end);
+                lines.add(new String(line, charset));
+            }
+        }
+        return lines;
+    }
+}
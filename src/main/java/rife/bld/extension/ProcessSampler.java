@@ -0,0 +1,150 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Periodically samples the CPU time and resident set size of a process tree.
+ * <p>
+ * CPU time is read from {@link ProcessHandle.Info#totalCpuDuration()}, and accumulated per process
+ * so that descendants which already exited are still accounted for. On Linux, the resident set size
+ * is read from {@code /proc/<pid>/status}; the peak is the largest of the tree's sampled total and
+ * of any single process' high-water mark.
+ * <p>
+ * Since the values are sampled, CPU time used in the last interval before a process exits is missed.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class ProcessSampler {
+
+    private static final long INTERVAL_MILLIS = 100L;
+    private static final boolean PROC = Files.isDirectory(Path.of("/proc/self"));
+    private static final Pattern RSS_PATTERN = Pattern.compile("^(VmRSS|VmHWM):\\s+(\\d+)\\s+kB", Pattern.MULTILINE);
+    private final Map<Long, Duration> cpu_ = new HashMap<>();
+    private final ProcessHandle process_;
+    private long peakRss_ = -1L;
+    private volatile boolean running_ = true;
+    private Thread thread_;
+
+    /**
+     * Creates a new sampler.
+     *
+     * @param process the root of the process tree
+     */
+    ProcessSampler(ProcessHandle process) {
+        process_ = process;
+    }
+
+    /**
+     * Returns the CPU time used by the process tree.
+     *
+     * @return the CPU time, or {@code null} if unavailable
+     */
+    synchronized Duration cpuTime() {
+        return cpu_.isEmpty() ? null : cpu_.values().stream().reduce(Duration.ZERO, Duration::plus);
+    }
+
+    /**
+     * Returns the peak resident set size of the process tree.
+     *
+     * @return the peak resident set size in bytes, or {@code -1} if unavailable
+     */
+    synchronized long peakRss() {
+        return peakRss_;
+    }
+
+    /**
+     * Starts sampling on a {@link ThreadSupport background thread}.
+     *
+     * @return this sampler
+     */
+    ProcessSampler start() {
+        thread_ = ThreadSupport.start("jbang-sampler", () -> {
+            while (running_) {
+                sample();
+                try {
+                    Thread.sleep(INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Stops sampling.
+     *
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    void stop() throws InterruptedException {
+        running_ = false;
+        if (thread_ != null) {
+            thread_.interrupt();
+            thread_.join();
+        }
+    }
+
+    private static long[] rss(long pid) {
+        try {
+            var status = Files.readString(Path.of("/proc", String.valueOf(pid), "status"), StandardCharsets.UTF_8);
+            var values = new long[2];
+            var matcher = RSS_PATTERN.matcher(status);
+            while (matcher.find()) {
+                values["VmRSS".equals(matcher.group(1)) ? 0 : 1] = Long.parseLong(matcher.group(2)) * 1024L;
+            }
+            return values;
+        } catch (IOException | RuntimeException e) {
+            // the process exited
+            return null;
+        }
+    }
+
+    private synchronized void sample() {
+        var total = 0L;
+        var found = false;
+        var processes = new ArrayList<ProcessHandle>();
+        processes.add(process_);
+        process_.descendants().forEach(processes::add);
+
+        for (var handle : processes) {
+            handle.info().totalCpuDuration().ifPresent(cpu -> cpu_.merge(handle.pid(), cpu,
+                    (a, b) -> a.compareTo(b) >= 0 ? a : b));
+            if (PROC) {
+                var rss = rss(handle.pid());
+                if (rss != null) {
+                    found = true;
+                    total += rss[0];
+                    peakRss_ = Math.max(peakRss_, rss[1]);
+                }
+            }
+        }
+        if (found) {
+            peakRss_ = Math.max(peakRss_, total);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Terminates a process together with all of its descendants.
+ * <p>
+ * The tree is collected before any process is signaled, since descendants are re-parented, and no
+ * longer reachable from the root, once their parent exits. Every process is first asked to terminate
+ * ({@code SIGTERM} on Unix), then the processes still alive after the grace period, including any
+ * forked in the meantime, are killed ({@code SIGKILL} on Unix).
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class ProcessTree {
+
+    private static final Duration KILL_WAIT = Duration.ofSeconds(5);
+    private static final long POLL_MILLIS = 10L;
+    private static final boolean PROC = Files.isDirectory(Path.of("/proc/self"));
+
+    private ProcessTree() {
+        // no-op
+    }
+
+    /**
+     * Terminates a process and its descendants, and waits for them to exit.
+     *
+     * @param root  the root process
+     * @param grace the time allowed to exit after being asked to terminate, or {@link Duration#ZERO} to
+     *              kill the processes immediately
+     * @return the number of processes that were terminated
+     */
+    static int terminate(ProcessHandle root, Duration grace) {
+        var tree = new LinkedHashMap<Long, ProcessHandle>();
+        collect(root, tree);
+
+        if (grace.isZero() || grace.isNegative()) {
+            tree.values().forEach(ProcessHandle::destroyForcibly);
+        } else {
+            tree.values().forEach(ProcessHandle::destroy);
+            if (!await(tree, grace)) {
+                // processes may have forked while shutting down
+                for (var handle : tree.values().toArray(new ProcessHandle[0])) {
+                    collect(handle, tree);
+                }
+                tree.values().stream().filter(ProcessTree::isRunning).forEach(ProcessHandle::destroyForcibly);
+            }
+        }
+        await(tree, KILL_WAIT);
+        return tree.size();
+    }
+
+    private static boolean await(Map<Long, ProcessHandle> tree, Duration timeout) {
+        // onExit() polls slowly for processes that are not children of the current JVM
+        var deadline = System.nanoTime() + timeout.toNanos();
+        while (tree.values().stream().anyMatch(ProcessTree::isRunning)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void collect(ProcessHandle handle, Map<Long, ProcessHandle> tree) {
+        if (handle.isAlive()) {
+            tree.putIfAbsent(handle.pid(), handle);
+            handle.descendants().forEach(descendant -> tree.putIfAbsent(descendant.pid(), descendant));
+        }
+    }
+
+    private static boolean isRunning(ProcessHandle handle) {
+        if (!handle.isAlive()) {
+            return false;
+        }
+        if (PROC) {
+            // orphans are reported alive until reaped, which can take a while in containers
+            try {
+                var stat = Files.readString(Path.of("/proc", String.valueOf(handle.pid()), "stat"));
+                var state = stat.charAt(stat.lastIndexOf(')') + 2);
+                return state != 'Z' && state != 'X';
+            } catch (IOException | RuntimeException e) {
+                return handle.isAlive();
+            }
+        }
+        return true;
+    }
+}
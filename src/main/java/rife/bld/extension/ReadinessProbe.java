@@ -0,0 +1,181 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import rife.bld.extension.tools.ObjectTools;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * A condition signaling that a {@link JBangOperation#start() started} script is ready.
+ * <p>
+ * A script is ready once it writes an output line matching a regular expression, accepts connections
+ * on a TCP port, or creates a file.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+public final class ReadinessProbe {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 250;
+    private final File file_;
+    private final String host_;
+    private final Pattern pattern_;
+    private final int port_;
+
+    private ReadinessProbe(File file, String host, int port, Pattern pattern) {
+        file_ = file;
+        host_ = host;
+        port_ = port;
+        pattern_ = pattern;
+    }
+
+    /**
+     * Creates a probe waiting for a file to exist.
+     *
+     * @param file the file, relative to the {@link JBangOperation#workDir() work directory} if not absolute
+     * @return the probe
+     * @throws NullPointerException if {@code file} is null
+     */
+    public static ReadinessProbe file(@NonNull File file) {
+        return new ReadinessProbe(ObjectTools.requireNonNull(file, "file"), null, 0, null);
+    }
+
+    /**
+     * Creates a probe waiting for a file to exist.
+     *
+     * @param file the file, relative to the {@link JBangOperation#workDir() work directory} if not absolute
+     * @return the probe
+     * @throws NullPointerException if {@code file} is null
+     */
+    public static ReadinessProbe file(@NonNull Path file) {
+        return file(ObjectTools.requireNonNull(file, "file").toFile());
+    }
+
+    /**
+     * Creates a probe waiting for a file to exist.
+     *
+     * @param file the file, relative to the {@link JBangOperation#workDir() work directory} if not absolute
+     * @return the probe
+     * @throws IllegalArgumentException if {@code file} is empty
+     * @throws NullPointerException     if {@code file} is null
+     */
+    public static ReadinessProbe file(@NonNull String file) {
+        return file(new File(ObjectTools.requireNotEmpty(file, "file")));
+    }
+
+    /**
+     * Creates a probe waiting for an output line matching a pattern.
+     * <p>
+     * The output of the script is captured to be matched, and passed to the
+     * {@link JBangOperation#outputConsumer(java.util.function.Consumer) output consumer}, even if the
+     * operation {@link JBangOperation#inheritIO(boolean) inherits I/O}.
+     *
+     * @param pattern the pattern found in the line
+     * @return the probe
+     * @throws NullPointerException if {@code pattern} is null
+     */
+    public static ReadinessProbe output(@NonNull Pattern pattern) {
+        return new ReadinessProbe(null, null, 0, ObjectTools.requireNonNull(pattern, "pattern"));
+    }
+
+    /**
+     * Creates a probe waiting for an output line matching a regular expression.
+     *
+     * @param regex the regular expression found in the line
+     * @return the probe
+     * @throws IllegalArgumentException if {@code regex} is empty
+     * @throws NullPointerException     if {@code regex} is null
+     * @see #output(Pattern)
+     */
+    public static ReadinessProbe output(@NonNull String regex) {
+        return output(Pattern.compile(ObjectTools.requireNotEmpty(regex, "regex")));
+    }
+
+    /**
+     * Creates a probe waiting for a local TCP port to accept connections.
+     *
+     * @param port the port
+     * @return the probe
+     * @throws IllegalArgumentException if {@code port} is not between {@code 1} and {@code 65535}
+     */
+    public static ReadinessProbe port(int port) {
+        return port("localhost", port);
+    }
+
+    /**
+     * Creates a probe waiting for a TCP port to accept connections.
+     *
+     * @param host the host name or address
+     * @param port the port
+     * @return the probe
+     * @throws IllegalArgumentException if {@code host} is empty, or {@code port} is not between {@code 1}
+     *                                  and {@code 65535}
+     * @throws NullPointerException     if {@code host} is null
+     */
+    public static ReadinessProbe port(@NonNull String host, int port) {
+        if (port < 1 || port > 65535) {
+            throw new IllegalArgumentException("port must be between 1 and 65535");
+        }
+        return new ReadinessProbe(null, ObjectTools.requireNotEmpty(host, "host"), port, null);
+    }
+
+    @Override
+    public String toString() {
+        if (pattern_ != null) {
+            return "output matching " + pattern_.pattern();
+        } else if (host_ != null) {
+            return "port " + host_ + ':' + port_;
+        }
+        return "file " + file_.getPath();
+    }
+
+    /**
+     * Returns the pattern matched against output lines.
+     *
+     * @return the pattern, or {@code null} if this probe does not match output lines
+     */
+    Pattern pattern() {
+        return pattern_;
+    }
+
+    /**
+     * Checks whether the port accepts connections, or the file exists.
+     *
+     * @param workDir the work directory
+     * @return {@code true} if ready, {@code false} otherwise or if this probe matches output lines
+     */
+    boolean test(File workDir) {
+        if (file_ != null) {
+            return (file_.isAbsolute() ? file_ : new File(workDir, file_.getPath())).exists();
+        } else if (host_ != null) {
+            try (var socket = new Socket()) {
+                socket.connect(new InetSocketAddress(host_, port_), CONNECT_TIMEOUT_MILLIS);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Reads and writes {@link ResultCache result cache} entries and declared outputs on an HTTP server.
+ * <p>
+ * Each entry is a zip archive, fetched with {@code GET} and stored with {@code PUT} at the
+ * {@link ResultCache#key(JBangOperation, File) key} of the operation, relative to the cache URL. It
+ * contains the exit code and output lines, and the files of each declared output. Uploads are sent in
+ * the background, and the build waits for pending uploads before exiting.
+ * <p>
+ * Credentials in the user information of the URL are sent using basic authentication.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class RemoteCache {
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    private static final String OUTPUTS = "outputs/";
+    private static final Set<CompletableFuture<?>> PENDING = ConcurrentHashMap.newKeySet();
+    private static final String RESULT = "result";
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+    private final String authorization_;
+    private final List<File> outputs_ = new ArrayList<>();
+    private final URI uri_;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(TIMEOUT), "jbang-cache-flush"));
+    }
+
+    /**
+     * Locates the entry of an operation.
+     *
+     * @param op   the operation
+     * @param base the cache URL
+     * @param key  the {@link ResultCache#key(JBangOperation, File) key} of the operation
+     */
+    RemoteCache(JBangOperation op, URI base, String key) {
+        for (var output : op.outputs()) {
+            outputs_.add(op.resolveFile(output));
+        }
+
+        var url = base.toString();
+        String authorization = null;
+        if (base.getRawUserInfo() != null) {
+            authorization = "Basic " + Base64.getEncoder()
+                    .encodeToString(base.getUserInfo().getBytes(StandardCharsets.UTF_8));
+            try {
+                url = new URI(base.getScheme(), null, base.getHost(), base.getPort(), base.getPath(),
+                        base.getQuery(), null).toString();
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException("Invalid cache URL: " + base, e);
+            }
+        }
+        authorization_ = authorization;
+        uri_ = URI.create(url.endsWith("/") ? url + key : url + '/' + key);
+    }
+
+    /**
+     * Waits for the pending uploads to complete.
+     *
+     * @param timeout the maximum time to wait
+     */
+    static void flush(Duration timeout) {
+        var pending = CompletableFuture.allOf(PENDING.toArray(new CompletableFuture<?>[0]));
+        try {
+            pending.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // failures are reported by the uploads
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fetches the entry, and restores the declared outputs it contains.
+     * <p>
+     * The entry is downloaded to a temporary file, and all of its names are checked before any output is
+     * replaced, so that an invalid entry leaves the outputs untouched.
+     *
+     * @return the cached result, or {@code null} if there is none
+     * @throws IOException          if the server could not be reached, or the entry is invalid
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    ResultCache.Entry load() throws IOException, InterruptedException {
+        var download = Files.createTempFile("jbang-cache", ".zip");
+        try {
+            var response = CLIENT.send(request().GET().build(), HttpResponse.BodyHandlers.ofFile(download));
+            if (response.statusCode() == 404) {
+                return null;
+            } else if (response.statusCode() != 200) {
+                throw new IOException("GET " + uri_ + " returned " + response.statusCode());
+            }
+
+            try (var zip = new ZipFile(download.toFile())) {
+                ResultCache.Entry entry = null;
+                var targets = new LinkedHashMap<ZipEntry, Path>();
+                for (var zipEntry : Collections.list(zip.entries())) {
+                    if (RESULT.equals(zipEntry.getName())) {
+                        try (var in = zip.getInputStream(zipEntry)) {
+                            entry = ResultCache.read(in);
+                        }
+                    } else {
+                        targets.put(zipEntry, target(zipEntry.getName()));
+                    }
+                }
+                if (entry == null) {
+                    throw new IOException("GET " + uri_ + " returned an invalid entry");
+                }
+                restore(zip, targets);
+                return entry;
+            } catch (ZipException e) {
+                throw new IOException("GET " + uri_ + " returned an invalid entry", e);
+            }
+        } finally {
+            Files.deleteIfExists(download);
+        }
+    }
+
+    /**
+     * Packs the result and the declared outputs, then uploads them in the background.
+     *
+     * @param exitCode the exit code
+     * @param lines    the output lines
+     * @return the upload, completed exceptionally if the server rejected it
+     * @throws IOException if an output could not be read
+     */
+    CompletableFuture<Void> store(int exitCode, List<String> lines) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry(RESULT));
+            ResultCache.write(zip, exitCode, lines);
+            zip.closeEntry();
+            for (var i = 0; i < outputs_.size(); i++) {
+                pack(zip, OUTPUTS + i, outputs_.get(i).toPath());
+            }
+        }
+
+        var request = request().PUT(HttpRequest.BodyPublishers.ofByteArray(bytes.toByteArray())).build();
+        var upload = CLIENT.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException("PUT " + uri_ + " returned " + response.statusCode());
+                    }
+                });
+        PENDING.add(upload);
+        upload.whenComplete((v, e) -> PENDING.remove(upload));
+        return upload;
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (var paths = Files.walk(path)) {
+                for (var file : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        } else {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static void pack(ZipOutputStream zip, String name, Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            zip.putNextEntry(new ZipEntry(name + '/'));
+            zip.closeEntry();
+            try (var paths = Files.walk(path)) {
+                for (var file : paths.filter(Files::isRegularFile).sorted().toList()) {
+                    zip.putNextEntry(new ZipEntry(name + '/'
+                            + path.relativize(file).toString().replace(File.separatorChar, '/')));
+                    Files.copy(file, zip);
+                    zip.closeEntry();
+                }
+            }
+        } else if (Files.isRegularFile(path)) {
+            zip.putNextEntry(new ZipEntry(name));
+            Files.copy(path, zip);
+            zip.closeEntry();
+        }
+    }
+
+    private HttpRequest.Builder request() {
+        var builder = HttpRequest.newBuilder(uri_).timeout(TIMEOUT);
+        if (authorization_ != null) {
+            builder.header("Authorization", authorization_);
+        }
+        return builder;
+    }
+
+    private void restore(ZipFile zip, Map<ZipEntry, Path> targets) throws IOException {
+        for (var output : outputs_) {
+            delete(output.toPath());
+        }
+        for (var target : targets.entrySet()) {
+            if (target.getKey().isDirectory()) {
+                Files.createDirectories(target.getValue());
+            } else {
+                Files.createDirectories(target.getValue().getParent());
+                try (var in = zip.getInputStream(target.getKey())) {
+                    Files.copy(in, target.getValue(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    private Path target(String name) throws IOException {
+        if (!name.startsWith(OUTPUTS)) {
+            throw new IOException("Invalid entry: " + name);
+        }
+        var slash = name.indexOf('/', OUTPUTS.length());
+        int index;
+        try {
+            index = Integer.parseInt(name.substring(OUTPUTS.length(), slash < 0 ? name.length() : slash));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid entry: " + name, e);
+        }
+        if (index < 0 || index >= outputs_.size()) {
+            throw new IOException("Invalid entry: " + name);
+        }
+
+        var root = outputs_.get(index).toPath().normalize();
+        var target = slash < 0 ? root : root.resolve(name.substring(slash + 1)).normalize();
+        if (!target.startsWith(root)) {
+            throw new IOException("Invalid entry: " + name);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Caches the exit code and output lines of JBang executions, keyed by their inputs.
+ * <p>
+ * An entry is stored under the {@code results} directory of the operation's cache directory, named
+ * after a {@link #key(JBangOperation, File) key} computed from the inputs of the operation. Reading an
+ * entry marks it as recently used, and the least recently used entries are evicted whenever the cache
+ * grows over its maximum size.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class ResultCache {
+
+    private static final int MAGIC = 0x4A425243;
+    private final Path dir_;
+    private final Path entry_;
+    private final long maxSize_;
+
+    /**
+     * Locates the cache entry of an operation.
+     *
+     * @param op      the operation
+     * @param key     the {@link #key(JBangOperation, File) key} of the operation
+     * @param maxSize the maximum size of the cache in bytes
+     */
+    ResultCache(JBangOperation op, String key, long maxSize) {
+        dir_ = new File(op.effectiveCacheDirectory(), "results").toPath();
+        entry_ = dir_.resolve(key);
+        maxSize_ = maxSize;
+    }
+
+    /**
+     * Computes the cache key of an operation.
+     * <p>
+     * The key is a fingerprint of the script, its contents and the {@link ScriptDirectives sources} it
+     * includes, the JBang and script arguments, the selected environment variables, the classpath entries and
+     * their contents, the declared inputs and their contents, the declared outputs, and the contents of the
+     * input file. Paths inside the work directory are relative, so that the same key is computed in different
+     * checkouts. The contents of jars on the classpath are only read again once their size or modification
+     * time changes.
+     *
+     * @param op    the operation
+     * @param input the input file, or {@code null}
+     * @return the key
+     * @throws IOException if an input could not be read
+     */
+    static String key(JBangOperation op, File input) throws IOException {
+        var env = new TreeMap<String, String>();
+        for (var name : op.resultCacheEnv()) {
+            var value = op.env().containsKey(name) ? op.env().get(name) : System.getenv(name);
+            env.put(name, value == null ? "" : value);
+        }
+
+        var script = op.scriptFile();
+        var fingerprint = new Fingerprint()
+                .add(script != null ? relativize(op, script) : op.script())
+                .add(op.jBangArgs())
+                .add(op.args())
+                .add(env);
+        if (script != null) {
+            fingerprint.addScript(script);
+        }
+        var classpath = new ArrayList<String>();
+        for (var entry : op.classpath()) {
+            classpath.add(relativize(op, op.resolveFile(entry)));
+        }
+        fingerprint.add(classpath);
+        for (var entry : op.classpath()) {
+            fingerprint.addClasspathEntry(op.resolveFile(entry));
+        }
+        for (var file : op.inputs()) {
+            var resolved = op.resolveFile(file);
+            fingerprint.add(relativize(op, resolved)).add(resolved);
+        }
+        var outputs = new ArrayList<String>();
+        for (var file : op.outputs()) {
+            outputs.add(relativize(op, op.resolveFile(file)));
+        }
+        fingerprint.add(outputs);
+        if (input != null) {
+            fingerprint.add(input);
+        }
+        return fingerprint.hex();
+    }
+
+    /**
+     * Reads an entry written by {@link #write(OutputStream, int, List) write}.
+     *
+     * @param in the stream
+     * @return the entry
+     * @throws IOException if the entry could not be read or is invalid
+     */
+    static Entry read(InputStream in) throws IOException {
+        // entries may come from a remote cache, so sizes are checked against the bytes actually present
+        var bytes = in.readAllBytes();
+        var data = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (bytes.length < 12 || data.readInt() != MAGIC) {
+            throw new IOException("Invalid result cache entry");
+        }
+        var exitCode = data.readInt();
+        var count = data.readInt();
+        if (count < 0 || count > data.available() / Integer.BYTES) {
+            throw new IOException("Invalid result cache entry");
+        }
+        var lines = new ArrayList<String>(count);
+        for (var i = 0; i < count; i++) {
+            var length = data.readInt();
+            if (length < 0 || length > data.available()) {
+                throw new IOException("Invalid result cache entry");
+            }
+            var line = new byte[length];
+            data.readFully(line);
+            lines.add(new String(line, StandardCharsets.UTF_8));
+        }
+        return new Entry(exitCode, lines);
+    }
+
+    /**
+     * Writes an entry.
+     *
+     * @param out      the stream, not closed
+     * @param exitCode the exit code
+     * @param lines    the output lines
+     * @throws IOException if the entry could not be written
+     */
+    static void write(OutputStream out, int exitCode, List<String> lines) throws IOException {
+        var data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(exitCode);
+        data.writeInt(lines.size());
+        for (var line : lines) {
+            var bytes = line.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+        data.flush();
+    }
+
+    private static String relativize(JBangOperation op, File file) {
+        var root = op.workDir().getAbsoluteFile().toPath().normalize();
+        var path = file.toPath().normalize();
+        if (!path.startsWith(root)) {
+            return path.toString();
+        }
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Loads the cached result, marking it as recently used.
+     *
+     * @return the cached result, or {@code null} if there is none or it could not be read
+     */
+    Entry load() {
+        Entry entry;
+        try (var in = Files.newInputStream(entry_)) {
+            entry = read(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // unreadable entry, replaced by the next execution
+            return null;
+        }
+
+        try {
+            Files.setLastModifiedTime(entry_, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // evicted concurrently
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a result, then evicts the least recently used entries if the cache is too large.
+     *
+     * @param exitCode the exit code
+     * @param lines    the output lines
+     * @throws IOException if the entry could not be written
+     */
+    void store(int exitCode, List<String> lines) throws IOException {
+        Files.createDirectories(dir_);
+        var temp = Files.createTempFile(dir_, "entry", ".tmp");
+        try {
+            try (var out = Files.newOutputStream(temp)) {
+                write(out, exitCode, lines);
+            }
+            Files.move(temp, entry_, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        evict();
+    }
+
+    private void evict() throws IOException {
+        List<Path> entries;
+        try (var files = Files.list(dir_)) {
+            entries = files.filter(path -> !path.getFileName().toString().endsWith(".tmp")).toList();
+        }
+
+        var sizes = new TreeMap<Path, long[]>();
+        var total = 0L;
+        for (var entry : entries) {
+            try {
+                var size = Files.size(entry);
+                sizes.put(entry, new long[]{size, Files.getLastModifiedTime(entry).toMillis()});
+                total += size;
+            } catch (IOException e) {
+                // evicted concurrently
+            }
+        }
+        if (total <= maxSize_) {
+            return;
+        }
+
+        var oldest = new ArrayList<>(sizes.keySet());
+        oldest.sort(Comparator.comparingLong(path -> sizes.get(path)[1]));
+        for (var path : oldest) {
+            if (total <= maxSize_) {
+                break;
+            }
+            Files.deleteIfExists(path);
+            total -= sizes.get(path)[0];
+        }
+    }
+
+    /**
+     * A cached result.
+     *
+     * @param exitCode the exit code
+     * @param lines    the output lines
+     */
+    record Entry(int exitCode, List<String> lines) {
+
+        /**
+         * Returns the size of the output, counting one line separator per line.
+         *
+         * @return the number of bytes
+         */
+        long bytes() {
+            var bytes = 0L;
+            for (var line : lines) {
+                bytes += line.getBytes(StandardCharsets.UTF_8).length + 1L;
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import rife.bld.extension.tools.ObjectTools;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The JBang directives of a script, read without starting JBang.
+ * <p>
+ * The {@code //DEPS}, {@code //REPOS}, {@code //JAVA}, {@code //JAVA_OPTIONS}, {@code //RUNTIME_OPTIONS},
+ * {@code //JAVAAGENT}, {@code //PREVIEW}, {@code //SOURCES} and {@code //FILES} directives are read from the
+ * header of the script, up to its first type declaration.
+ * Local {@code //SOURCES}, including glob patterns, are followed transitively, and their directives
+ * merged in the order they are found.
+ * <p>
+ * The {@link #hash() hash} covers the contents of the script, of all the sources it includes, and of the
+ * local files it embeds, so that it changes whenever JBang would build the script differently. Each file is
+ * only read again once its modification time or size changed.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+public final class ScriptDirectives {
+
+    private static final Map<Path, Header> CACHE = new ConcurrentHashMap<>();
+    private static final List<String> EXTENSIONS = List.of(".java", ".jsh", ".kt", ".groovy", ".md");
+    private static final Header MISSING = new Header(-1L, -1L, "", List.of(), List.of(), null, List.of(), List.of(),
+            false, List.of(), List.of());
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s,]+");
+    private static final Pattern TYPE_DECLARATION = Pattern.compile(
+            "^(?:(?:public|protected|private|abstract|final|sealed|non-sealed|static|strictfp)\\s+)*"
+                    + "(?:class|interface|enum|record|@interface)\\b.*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private final List<String> deps_;
+    private final List<String> files_;
+    private final String hash_;
+    private final String java_;
+    private final List<String> javaAgents_;
+    private final List<String> javaOptions_;
+    private final boolean preview_;
+    private final List<String> repos_;
+    private final List<File> sources_;
+
+    private ScriptDirectives(List<String> deps, List<String> repos, String java, List<String> javaOptions,
+                             List<String> javaAgents, boolean preview, List<File> sources, List<String> files,
+                             String hash) {
+        deps_ = Collections.unmodifiableList(deps);
+        repos_ = Collections.unmodifiableList(repos);
+        java_ = java;
+        javaOptions_ = Collections.unmodifiableList(javaOptions);
+        javaAgents_ = Collections.unmodifiableList(javaAgents);
+        preview_ = preview;
+        sources_ = Collections.unmodifiableList(sources);
+        files_ = Collections.unmodifiableList(files);
+        hash_ = hash;
+    }
+
+    /**
+     * Reads the directives of a script, and of the sources it includes.
+     *
+     * @param script the script file
+     * @return the directives
+     * @throws IOException          if the script or one of its existing sources could not be read
+     * @throws NullPointerException if {@code script} is null
+     */
+    public static ScriptDirectives of(@NonNull File script) throws IOException {
+        return of(ObjectTools.requireNonNull(script, "script").toPath());
+    }
+
+    /**
+     * Reads the directives of a script, and of the sources it includes.
+     *
+     * @param script the script file
+     * @return the directives
+     * @throws IOException          if the script or one of its existing sources could not be read
+     * @throws NullPointerException if {@code script} is null
+     */
+    public static ScriptDirectives of(@NonNull Path script) throws IOException {
+        var root = ObjectTools.requireNonNull(script, "script").toAbsolutePath().normalize();
+        var headers = new LinkedHashMap<Path, Header>();
+        collect(root, headers);
+
+        var deps = new LinkedHashSet<String>();
+        var repos = new LinkedHashSet<String>();
+        var javaOptions = new ArrayList<String>();
+        var javaAgents = new ArrayList<String>();
+        var files = new ArrayList<String>();
+        String java = null;
+        var preview = false;
+        var fingerprint = new Fingerprint();
+        var base = root.getParent();
+        for (var entry : headers.entrySet()) {
+            var header = entry.getValue();
+            deps.addAll(header.deps());
+            repos.addAll(header.repos());
+            javaOptions.addAll(header.javaOptions());
+            javaAgents.addAll(header.javaAgents());
+            preview |= header.preview();
+            if (java == null) {
+                java = header.java();
+            }
+            fingerprint.add(relativize(base, entry.getKey())).add(header.hash());
+
+            var dir = entry.getKey().getParent();
+            for (var file : header.files()) {
+                files.add(file);
+                var source = file.substring(file.indexOf('=') + 1);
+                fingerprint.add(file);
+                if (!source.contains("://")) {
+                    fingerprint.add(dir.resolve(source).toFile());
+                }
+            }
+        }
+
+        var sources = new ArrayList<File>();
+        for (var entry : headers.entrySet()) {
+            if (!entry.getKey().equals(root) && entry.getValue() != MISSING) {
+                sources.add(entry.getKey().toFile());
+            }
+        }
+        return new ScriptDirectives(new ArrayList<>(deps), new ArrayList<>(repos), java, javaOptions, javaAgents,
+                preview, sources, files, fingerprint.hex());
+    }
+
+    /**
+     * Returns the dependencies declared with {@code //DEPS}, without duplicates.
+     *
+     * @return the dependency coordinates
+     */
+    public List<String> deps() {
+        return deps_;
+    }
+
+    /**
+     * Returns the files embedded with {@code //FILES}, as declared.
+     *
+     * @return the file entries, either {@code source} or {@code target=source}
+     */
+    public List<String> files() {
+        return files_;
+    }
+
+    /**
+     * Returns a hash of the contents of the script, its sources and embedded files.
+     *
+     * @return the SHA-256 hash, as a lowercase hexadecimal string
+     */
+    public String hash() {
+        return hash_;
+    }
+
+    /**
+     * Determines whether preview features are enabled with {@code //PREVIEW}.
+     *
+     * @return {@code true} if preview features are enabled, {@code false} otherwise
+     */
+    public boolean isPreview() {
+        return preview_;
+    }
+
+    /**
+     * Returns the Java version declared with {@code //JAVA}.
+     *
+     * @return the version, such as {@code 21} or {@code 17+}, or {@code null} if not declared
+     */
+    public String java() {
+        return java_;
+    }
+
+    /**
+     * Returns the Java agents declared with {@code //JAVAAGENT}.
+     *
+     * @return the agents, either files or dependency coordinates, optionally followed by their options
+     */
+    public List<String> javaAgents() {
+        return javaAgents_;
+    }
+
+    /**
+     * Returns the JVM options declared with {@code //JAVA_OPTIONS} or {@code //RUNTIME_OPTIONS}.
+     *
+     * @return the options
+     */
+    public List<String> javaOptions() {
+        return javaOptions_;
+    }
+
+    /**
+     * Returns the repositories declared with {@code //REPOS}, without duplicates.
+     *
+     * @return the repositories, either names or {@code name=url}
+     */
+    public List<String> repos() {
+        return repos_;
+    }
+
+    /**
+     * Returns the local sources included with {@code //SOURCES}, transitively.
+     * <p>
+     * Missing sources are not returned, but are part of the {@link #hash() hash}.
+     *
+     * @return the source files, in the order they were found
+     */
+    public List<File> sources() {
+        return sources_;
+    }
+
+    /**
+     * Determines whether a script is a source file that may contain directives, rather than a jar.
+     *
+     * @param script the script file
+     * @return {@code true} if the script is a source file, {@code false} otherwise
+     */
+    static boolean isSource(File script) {
+        var name = script.getName();
+        return EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptDirectives{deps=" + deps_ + ", repos=" + repos_ + ", java=" + java_ + ", javaOptions="
+                + javaOptions_ + ", javaAgents=" + javaAgents_ + ", preview=" + preview_ + ", sources=" + sources_
+                + ", files=" + files_ + ", hash=" + hash_ + '}';
+    }
+
+    private static void collect(Path file, Map<Path, Header> headers) throws IOException {
+        if (headers.containsKey(file)) {
+            return;
+        }
+        // a missing source is hashed as such, and left for JBang to report
+        var header = !headers.isEmpty() && !Files.isRegularFile(file) ? MISSING : header(file);
+        headers.put(file, header);
+
+        var dir = file.getParent();
+        for (var source : header.sources()) {
+            if (source.contains("://")) {
+                continue;
+            }
+            if (source.indexOf('*') >= 0 || source.indexOf('?') >= 0 || source.indexOf('{') >= 0) {
+                var matcher = dir.getFileSystem().getPathMatcher("glob:" + source);
+                try (var paths = Files.walk(dir)) {
+                    for (var match : paths.filter(Files::isRegularFile)
+                            .filter(path -> matcher.matches(dir.relativize(path)))
+                            .sorted()
+                            .toList()) {
+                        collect(match.normalize(), headers);
+                    }
+                }
+            } else {
+                collect(dir.resolve(source).normalize(), headers);
+            }
+        }
+    }
+
+    private static Header header(Path file) throws IOException {
+        var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        var modified = attributes.lastModifiedTime().toMillis();
+        var size = attributes.size();
+        var cached = CACHE.get(file);
+        if (cached != null && cached.modified() == modified && cached.size() == size) {
+            return cached;
+        }
+
+        var content = Files.readAllBytes(file);
+        var header = parse(content, modified, size);
+        CACHE.put(file, header);
+        return header;
+    }
+
+    private static Header parse(byte[] content, long modified, long size) throws IOException {
+        var deps = new ArrayList<String>();
+        var files = new ArrayList<String>();
+        var javaAgents = new ArrayList<String>();
+        var javaOptions = new ArrayList<String>();
+        var repos = new ArrayList<String>();
+        var sources = new ArrayList<String>();
+        String java = null;
+        var preview = false;
+        try (var reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("//")) {
+                    if (TYPE_DECLARATION.matcher(line.strip()).matches()) {
+                        break;
+                    }
+                    continue;
+                }
+                var space = line.indexOf(' ');
+                if (space < 0) {
+                    preview |= "//PREVIEW".equals(line.strip());
+                    continue;
+                }
+                var value = line.substring(space + 1).strip();
+                switch (line.substring(2, space)) {
+                    case "DEPS" -> split(SEPARATORS, value, deps);
+                    case "FILES" -> split(WHITESPACE, value, files);
+                    case "JAVA" -> {
+                        if (java == null && !value.isEmpty()) {
+                            java = value;
+                        }
+                    }
+                    case "JAVAAGENT" -> {
+                        if (!value.isEmpty()) {
+                            javaAgents.add(value);
+                        }
+                    }
+                    case "JAVA_OPTIONS", "RUNTIME_OPTIONS" -> splitQuoted(value, javaOptions);
+                    case "PREVIEW" -> preview = true;
+                    case "REPOS" -> split(SEPARATORS, value, repos);
+                    case "SOURCES" -> split(WHITESPACE, value, sources);
+                    default -> {
+                        // not a directive
+                    }
+                }
+            }
+        }
+        return new Header(modified, size, sha256(content), deps, repos, java, javaOptions, javaAgents, preview,
+                sources, files);
+    }
+
+    private static String relativize(Path base, Path file) {
+        return (base != null && file.startsWith(base) ? base.relativize(file) : file).toString()
+                .replace(File.separatorChar, '/');
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void split(Pattern separators, String value, List<String> values) {
+        for (var token : separators.split(value)) {
+            if (!token.isEmpty()) {
+                values.add(token);
+            }
+        }
+    }
+
+    /**
+     * Splits on whitespace like JBang does for runtime options, keeping single or double quoted parts together
+     * and removing the quotes, so that {@code -Dmsg="a b"} stays a single {@code -Dmsg=a b} option.
+     */
+    private static void splitQuoted(String value, List<String> values) {
+        var token = new StringBuilder();
+        var inToken = false;
+        var quote = 0;
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    values.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            values.add(token.toString());
+        }
+    }
+
+    private record Header(long modified, long size, String hash, List<String> deps, List<String> repos,
+                          String java, List<String> javaOptions, List<String> javaAgents, boolean preview,
+                          List<String> sources, List<String> files) {
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+/**
+ * The source of a script's {@code stdin}.
+ * <p>
+ * A file is redirected to the process by the operating system. Streams and buffer suppliers are
+ * pumped into the process on a {@link ThreadSupport background thread}, one chunk at a time, so that
+ * a blocked pipe keeps the source from being read any further.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class ScriptInput {
+
+    private static final int CHUNK_SIZE = 8192;
+    private final Supplier<ByteBuffer> buffers_;
+    private final File file_;
+    private final InputStream stream_;
+
+    private ScriptInput(File file, InputStream stream, Supplier<ByteBuffer> buffers) {
+        file_ = file;
+        stream_ = stream;
+        buffers_ = buffers;
+    }
+
+    /**
+     * Creates an input redirected from a file.
+     *
+     * @param file the file
+     * @return the input
+     */
+    static ScriptInput of(File file) {
+        return new ScriptInput(file, null, null);
+    }
+
+    /**
+     * Creates an input pumped from a stream, which is closed once fully read.
+     *
+     * @param stream the stream
+     * @return the input
+     */
+    static ScriptInput of(InputStream stream) {
+        return new ScriptInput(null, stream, null);
+    }
+
+    /**
+     * Creates an input pumped from a supplier of buffers, called until it returns {@code null}.
+     *
+     * @param buffers the buffer supplier
+     * @return the input
+     */
+    static ScriptInput of(Supplier<ByteBuffer> buffers) {
+        return new ScriptInput(null, null, buffers);
+    }
+
+    /**
+     * Returns the file to redirect from.
+     *
+     * @return the file, or {@code null} if the input is pumped
+     */
+    File file() {
+        return file_;
+    }
+
+    /**
+     * Pumps the input into the process.
+     * <p>
+     * Failures to read the source are thrown as unchecked exceptions, so that they can be told apart from
+     * the process no longer reading its {@code stdin}.
+     *
+     * @param out the process' {@code stdin}, closed once the input is exhausted, and left open on failure
+     * @throws IOException          if the process stopped reading its input
+     * @throws UncheckedIOException if the stream could not be read
+     * @throws RuntimeException     if the buffer supplier failed
+     */
+    void pump(OutputStream out) throws IOException {
+        if (stream_ != null) {
+            try {
+                var chunk = new byte[CHUNK_SIZE];
+                int length;
+                while ((length = read(chunk)) >= 0) {
+                    out.write(chunk, 0, length);
+                }
+            } finally {
+                try {
+                    stream_.close();
+                } catch (IOException e) {
+                    // the stream was fully read, or already failed
+                }
+            }
+        } else if (buffers_ != null) {
+            var chunk = new byte[CHUNK_SIZE];
+            ByteBuffer buffer;
+            while ((buffer = buffers_.get()) != null) {
+                if (buffer.hasArray()) {
+                    out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                    buffer.position(buffer.limit());
+                } else {
+                    while (buffer.hasRemaining()) {
+                        var length = Math.min(chunk.length, buffer.remaining());
+                        buffer.get(chunk, 0, length);
+                        out.write(chunk, 0, length);
+                    }
+                }
+                out.flush();
+            }
+        }
+        out.close();
+    }
+
+    private int read(byte[] chunk) {
+        try {
+            return stream_.read(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the script input", e);
+        }
+    }
+
+    /**
+     * Returns the redirect to apply to the process' {@code stdin}.
+     *
+     * @return the redirect
+     */
+    Redirect redirect() {
+        return file_ != null ? Redirect.from(file_) : Redirect.PIPE;
+    }
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs a process and pumps its output to consumers.
+ * <p>
+ * Each output stream is pumped on its own {@link ThreadSupport background thread}, so that the
+ * calling thread only waits for the process to exit. {@code stderr} is merged into {@code stdout},
+ * unless it has its own consumer or is redirected to a file. The CPU time and memory of the process tree are
+ * {@link ProcessSampler sampled} while it runs. Output redirected to files is written by the
+ * operating system, without passing through the current JVM.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class ScriptProcess {
+
+    private final List<String> command_;
+    private boolean append_;
+    private int bufferSize_ = 8192;
+    private Map<String, String> env_ = Map.of();
+    private Consumer<String> errorConsumer_;
+    private File errorFile_;
+    private boolean inheritIO_;
+    private ScriptInput input_;
+    private Consumer<String> outputConsumer_ = line -> {
+    };
+    private File outputFile_;
+    private OutputTail tail_;
+    private Path temporaryFile_;
+    private Duration terminationGracePeriod_ = Duration.ZERO;
+    private Duration timeout_ = Duration.ofSeconds(-1L);
+    private File workDir_;
+
+    /**
+     * Creates a new process.
+     *
+     * @param command the command line
+     */
+    ScriptProcess(List<String> command) {
+        command_ = List.copyOf(command);
+    }
+
+    /**
+     * Sets whether the output and error files are appended to, rather than truncated.
+     *
+     * @param append {@code true} to append, {@code false} to truncate
+     * @return this process
+     */
+    ScriptProcess append(boolean append) {
+        append_ = append;
+        return this;
+    }
+
+    /**
+     * Sets the size of the buffer used to read each output stream.
+     *
+     * @param bufferSize the buffer size in bytes
+     * @return this process
+     */
+    ScriptProcess bufferSize(int bufferSize) {
+        bufferSize_ = bufferSize;
+        return this;
+    }
+
+    /**
+     * Sets the environment variables merged with the current process environment.
+     *
+     * @param env the environment variables
+     * @return this process
+     */
+    ScriptProcess env(Map<String, String> env) {
+        env_ = Map.copyOf(env);
+        return this;
+    }
+
+    /**
+     * Sets the consumer receiving the {@code stderr} lines, when not inheriting I/O.
+     *
+     * @param errorConsumer the error consumer, or {@code null} to merge {@code stderr} into the output
+     * @return this process
+     */
+    ScriptProcess errorConsumer(Consumer<String> errorConsumer) {
+        errorConsumer_ = errorConsumer;
+        return this;
+    }
+
+    /**
+     * Sets the file {@code stderr} is redirected to, bypassing the current JVM.
+     * <p>
+     * If it is the same file as the {@link #outputFile(File) output file}, both streams are merged into it.
+     *
+     * @param errorFile the error file, or {@code null} to inherit or pump {@code stderr}
+     * @return this process
+     */
+    ScriptProcess errorFile(File errorFile) {
+        errorFile_ = errorFile;
+        return this;
+    }
+
+    /**
+     * Sets whether the process inherits the I/O streams of the current JVM.
+     *
+     * @param inheritIO {@code true} to inherit I/O, {@code false} to pump the merged output
+     * @return this process
+     */
+    ScriptProcess inheritIO(boolean inheritIO) {
+        inheritIO_ = inheritIO;
+        return this;
+    }
+
+    /**
+     * Sets the consumer receiving the merged output lines, when not inheriting I/O.
+     *
+     * @param outputConsumer the output consumer
+     * @return this process
+     */
+    ScriptProcess outputConsumer(Consumer<String> outputConsumer) {
+        outputConsumer_ = outputConsumer;
+        return this;
+    }
+
+    /**
+     * Sets the source of {@code stdin}.
+     *
+     * @param input the input, or {@code null} to inherit or close {@code stdin}
+     * @return this process
+     */
+    ScriptProcess input(ScriptInput input) {
+        input_ = input;
+        return this;
+    }
+
+    /**
+     * Sets the file {@code stdout} is redirected to, bypassing the current JVM.
+     *
+     * @param outputFile the output file, or {@code null} to inherit or pump {@code stdout}
+     * @return this process
+     */
+    ScriptProcess outputFile(File outputFile) {
+        outputFile_ = outputFile;
+        return this;
+    }
+
+    /**
+     * Starts the process and waits for it to complete.
+     * <p>
+     * If the process times out, it is terminated together with its descendants, which are given the
+     * {@link #terminationGracePeriod(Duration) grace period} to exit before being killed. If the calling
+     * thread is interrupted, the process and its descendants are killed.
+     *
+     * @return the result
+     * @throws IOException          if the process could not be started
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    JBangResult run() throws IOException, InterruptedException {
+        return start().await();
+    }
+
+    /**
+     * Starts the process, without waiting for it to complete.
+     *
+     * @return the running process
+     * @throws IOException if the process could not be started
+     */
+    Execution start() throws IOException {
+        try {
+            return startProcess();
+        } catch (IOException | RuntimeException e) {
+            deleteTemporaryFile();
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the tail keeping the last pumped output lines, attached to the result if the process fails.
+     *
+     * @param tail the output tail, or {@code null}
+     * @return this process
+     */
+    ScriptProcess tail(OutputTail tail) {
+        tail_ = tail;
+        return this;
+    }
+
+    /**
+     * Sets a temporary file used by the process, such as an argument file, deleted once it has exited.
+     *
+     * @param file the temporary file, or {@code null}
+     * @return this process
+     */
+    ScriptProcess temporaryFile(Path file) {
+        temporaryFile_ = file;
+        return this;
+    }
+
+    /**
+     * Sets the time the process tree is given to exit after a timeout, before it is killed.
+     *
+     * @param gracePeriod the grace period, or {@link Duration#ZERO} to kill the process tree immediately
+     * @return this process
+     */
+    ScriptProcess terminationGracePeriod(Duration gracePeriod) {
+        terminationGracePeriod_ = gracePeriod;
+        return this;
+    }
+
+    /**
+     * Sets the timeout.
+     *
+     * @param timeout the timeout, or a negative duration to wait indefinitely
+     * @return this process
+     */
+    ScriptProcess timeout(Duration timeout) {
+        timeout_ = timeout;
+        return this;
+    }
+
+    /**
+     * Sets the working directory.
+     *
+     * @param workDir the working directory
+     * @return this process
+     */
+    ScriptProcess workDir(File workDir) {
+        workDir_ = workDir;
+        return this;
+    }
+
+    private void deleteTemporaryFile() {
+        if (temporaryFile_ != null) {
+            try {
+                Files.deleteIfExists(temporaryFile_);
+            } catch (IOException e) {
+                temporaryFile_.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private Redirect redirect(File file) throws IOException {
+        var parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        return append_ ? Redirect.appendTo(file) : Redirect.to(file);
+    }
+
+    private Thread pump(InputStream in, Consumer<String> consumer, List<LineOutputStream> outputs) {
+        var out = new LineOutputStream(consumer, Charset.defaultCharset(), tail_);
+        outputs.add(out);
+        var size = bufferSize_;
+        return ThreadSupport.start("jbang-output", () -> pump(in, out, size));
+    }
+
+    private static void pump(InputStream in, LineOutputStream out, int bufferSize) {
+        try (in; out) {
+            var buffer = new byte[bufferSize];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            // stream closed, the process is gone
+        }
+    }
+
+    private Execution startProcess() throws IOException {
+        var builder = new ProcessBuilder(command_);
+        if (workDir_ != null) {
+            builder.directory(workDir_);
+        }
+        builder.environment().putAll(env_);
+        if (input_ != null) {
+            builder.redirectInput(input_.redirect());
+        } else {
+            builder.redirectInput(inheritIO_ ? Redirect.INHERIT : Redirect.PIPE);
+        }
+        builder.redirectOutput(outputFile_ != null ? redirect(outputFile_)
+                : inheritIO_ ? Redirect.INHERIT : Redirect.PIPE);
+        if (errorFile_ != null && errorFile_.equals(outputFile_)) {
+            builder.redirectErrorStream(true);
+        } else if (errorFile_ != null) {
+            builder.redirectError(redirect(errorFile_));
+        } else if (inheritIO_) {
+            builder.redirectError(Redirect.INHERIT);
+        } else if (outputFile_ == null && errorConsumer_ == null) {
+            builder.redirectErrorStream(true);
+        }
+
+        var process = builder.start();
+        var execution = new Execution(process, new ProcessSampler(process.toHandle()).start());
+        if (input_ != null && input_.file() == null) {
+            execution.inputPump_ = ThreadSupport.start("jbang-input", () -> {
+                var stdin = process.getOutputStream();
+                try {
+                    input_.pump(stdin);
+                } catch (IOException e) {
+                    // the process stopped reading its input
+                } catch (RuntimeException e) {
+                    // recorded before the script sees the end of its input, so that it cannot pass unnoticed
+                    execution.inputFailure_.set(e);
+                } finally {
+                    try {
+                        stdin.close();
+                    } catch (IOException e) {
+                        // the process stopped reading its input
+                    }
+                }
+            });
+        } else if (builder.redirectInput() == Redirect.PIPE) {
+            process.getOutputStream().close();
+        }
+        if (builder.redirectOutput() == Redirect.PIPE) {
+            execution.pumps_.add(pump(process.getInputStream(), outputConsumer_, execution.outputs_));
+        }
+        if (builder.redirectError() == Redirect.PIPE && !builder.redirectErrorStream()) {
+            execution.pumps_.add(pump(process.getErrorStream(),
+                    errorConsumer_ != null ? errorConsumer_ : outputConsumer_, execution.outputs_));
+        }
+        return execution;
+    }
+
+    /**
+     * A started process, with its output pumps and resource sampler.
+     */
+    final class Execution {
+
+        private final AtomicReference<RuntimeException> inputFailure_ = new AtomicReference<>();
+        private final List<LineOutputStream> outputs_ = new ArrayList<>();
+        private final Process process_;
+        private final List<Thread> pumps_ = new ArrayList<>();
+        private final ProcessSampler sampler_;
+        private Thread inputPump_;
+
+        private Execution(Process process, ProcessSampler sampler) {
+            process_ = process;
+            sampler_ = sampler;
+        }
+
+        /**
+         * Waits for the process to complete, terminating its tree if it times out.
+         *
+         * @return the result
+         * @throws InterruptedException if the calling thread was interrupted
+         */
+        JBangResult await() throws InterruptedException {
+            var reaped = 0;
+            var timedOut = false;
+            try {
+                if (timeout_.isNegative()) {
+                    process_.waitFor();
+                } else if (!process_.waitFor(timeout_.toNanos(), TimeUnit.NANOSECONDS)) {
+                    timedOut = true;
+                    reaped = ProcessTree.terminate(process_.toHandle(), terminationGracePeriod_);
+                }
+            } catch (InterruptedException e) {
+                ProcessTree.terminate(process_.toHandle(), Duration.ZERO);
+                release();
+                throw e;
+            }
+            return finish(timedOut, reaped);
+        }
+
+        /**
+         * Returns the process.
+         *
+         * @return the process
+         */
+        Process process() {
+            return process_;
+        }
+
+        /**
+         * Terminates the process tree, giving it the grace period to exit, and waits for the output.
+         *
+         * @return the result, with the number of processes that were terminated
+         * @throws InterruptedException if the calling thread was interrupted
+         */
+        JBangResult terminate() throws InterruptedException {
+            return finish(false, ProcessTree.terminate(process_.toHandle(), terminationGracePeriod_));
+        }
+
+        private JBangResult finish(boolean timedOut, int reaped) throws InterruptedException {
+            try {
+                for (var pump : pumps_) {
+                    pump.join();
+                }
+                process_.waitFor();
+            } finally {
+                release();
+            }
+
+            if (inputFailure_.get() != null) {
+                throw inputFailure_.get();
+            }
+
+            Duration firstOutput = null;
+            var bytes = outputs_.isEmpty() ? -1L : 0L;
+            for (var output : outputs_) {
+                var first = output.timeToFirstOutput();
+                if (first != null && (firstOutput == null || first.compareTo(firstOutput) < 0)) {
+                    firstOutput = first;
+                }
+                bytes += output.bytes();
+            }
+            var result = new JBangResult(process_.exitValue(), timedOut, firstOutput, bytes, sampler_.cpuTime(),
+                    sampler_.peakRss()).withReaped(reaped);
+            if (tail_ != null && !result.isSuccess()) {
+                result = result.withTail(tail_.lines(Charset.defaultCharset()));
+            }
+            return result;
+        }
+
+        private void release() throws InterruptedException {
+            if (inputPump_ != null && inputPump_.isAlive()) {
+                // the process exited without reading all of its input
+                inputPump_.interrupt();
+            }
+            sampler_.stop();
+            deleteTemporaryFile();
+        }
+    }
+}
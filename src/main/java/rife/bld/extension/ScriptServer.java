@@ -0,0 +1,289 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A long-lived JVM that runs script main classes on request.
+ * <p>
+ * This class runs in its own JVM and only depends on the JDK. It reads an authentication token from
+ * {@code stdin}, listens on an ephemeral loopback port which it prints to {@code stdout}, and then
+ * handles one invocation at a time. Each invocation loads the script in a fresh class loader,
+ * invokes its {@code main} method, and streams its output back as frames, followed by its exit code.
+ * A {@code System.exit()} from the script is trapped and reported as the exit code. The trap stays
+ * installed for the whole lifetime of the server, so that threads left running by a script cannot
+ * terminate it either.
+ * <p>
+ * The trap is a security manager, which must be allowed with {@code -Djava.security.manager=allow} on
+ * Java 18 and later, and can no longer be installed on Java 24 and later. On Java 17 and later, the JDK
+ * prints a deprecation warning to the server's {@code stderr} when it is installed.
+ * <p>
+ * The server exits when it has been idle for the number of seconds passed as its only argument,
+ * or when its parent process exits.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class ScriptServer {
+
+    static final byte FRAME_ERR = 2;
+    static final byte FRAME_EXIT = 3;
+    static final byte FRAME_OUT = 1;
+    static final String PORT_PREFIX = "PORT ";
+    private static volatile boolean stopping_;
+
+    private ScriptServer() {
+        // no-op
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param args the idle timeout in seconds
+     * @throws IOException if the server socket could not be opened
+     */
+    @SuppressWarnings("removal")
+    public static void main(String[] args) throws IOException {
+        var idleTimeout = Integer.parseInt(args[0]);
+        var token = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine();
+        var out = System.out;
+        var err = System.err;
+
+        ProcessHandle.current().parent().ifPresent(parent -> parent.onExit().thenRun(ScriptServer::stop));
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
+            if (!(e instanceof ExitException)) {
+                e.printStackTrace(err);
+            }
+        });
+        System.setSecurityManager(new ExitTrap());
+
+        try (var server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(idleTimeout * 1000);
+            out.println(PORT_PREFIX + server.getLocalPort());
+            out.flush();
+
+            while (true) {
+                try (var socket = server.accept()) {
+                    handle(socket, token);
+                } catch (SocketTimeoutException e) {
+                    break;
+                } catch (IOException e) {
+                    e.printStackTrace(err);
+                } finally {
+                    System.setOut(out);
+                    System.setErr(err);
+                }
+            }
+        }
+        stop();
+    }
+
+    /**
+     * Collects the command line arguments passed to the server.
+     *
+     * @param idleTimeout the idle timeout in seconds
+     * @return the server arguments
+     */
+    static List<String> arguments(long idleTimeout) {
+        var args = new ArrayList<String>();
+        args.add(ScriptServer.class.getName());
+        args.add(String.valueOf(Math.max(1L, Math.min(idleTimeout, Integer.MAX_VALUE / 1000))));
+        return args;
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string.
+     *
+     * @param in the input
+     * @return the string
+     * @throws IOException if an error occurs
+     */
+    static String readString(DataInputStream in) throws IOException {
+        var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string.
+     *
+     * @param out   the output
+     * @param value the string
+     * @throws IOException if an error occurs
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void handle(Socket socket, String token) throws IOException {
+        var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        if (!token.equals(readString(in))) {
+            return;
+        }
+
+        var mainClass = readString(in);
+        var urls = new URL[in.readInt()];
+        for (var i = 0; i < urls.length; i++) {
+            urls[i] = new File(readString(in)).toURI().toURL();
+        }
+        var args = new String[in.readInt()];
+        for (var i = 0; i < args.length; i++) {
+            args[i] = readString(in);
+        }
+
+        var stdout = new PrintStream(new FrameOutputStream(out, FRAME_OUT), true, StandardCharsets.UTF_8);
+        var stderr = new PrintStream(new FrameOutputStream(out, FRAME_ERR), true, StandardCharsets.UTF_8);
+        System.setOut(stdout);
+        System.setErr(stderr);
+        System.setIn(InputStream.nullInputStream());
+
+        var exitCode = 0;
+        var thread = Thread.currentThread();
+        var contextLoader = thread.getContextClassLoader();
+        try (var loader = new URLClassLoader(urls, ClassLoader.getPlatformClassLoader())) {
+            thread.setContextClassLoader(loader);
+            var main = loader.loadClass(mainClass).getMethod("main", String[].class);
+            main.setAccessible(true);
+            main.invoke(null, (Object) args);
+        } catch (InvocationTargetException e) {
+            exitCode = exitCode(e.getCause(), stderr);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            exitCode = exitCode(e, stderr);
+        } finally {
+            thread.setContextClassLoader(contextLoader);
+            stdout.flush();
+            stderr.flush();
+        }
+
+        synchronized (out) {
+            out.writeByte(FRAME_EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    private static int exitCode(Throwable t, PrintStream err) {
+        if (t instanceof ExitException exit) {
+            return exit.status_;
+        }
+        t.printStackTrace(err);
+        return 1;
+    }
+
+    private static void stop() {
+        stopping_ = true;
+        Runtime.getRuntime().halt(0);
+    }
+
+    /**
+     * Thrown when a script calls {@code System.exit()}.
+     */
+    private static final class ExitException extends SecurityException {
+        private static final long serialVersionUID = 1L;
+        private final int status_;
+
+        ExitException(int status) {
+            super("System.exit(" + status + ")");
+            status_ = status;
+        }
+    }
+
+    /**
+     * Prevents scripts, and the threads they started, from terminating the server, and permits everything else.
+     */
+    @SuppressWarnings("removal")
+    private static final class ExitTrap extends SecurityManager {
+        @Override
+        public void checkExit(int status) {
+            if (!stopping_) {
+                throw new ExitException(status);
+            }
+        }
+
+        @Override
+        public void checkPermission(Permission perm) {
+            // everything is permitted
+        }
+
+        @Override
+        public void checkPermission(Permission perm, Object context) {
+            // everything is permitted
+        }
+    }
+
+    /**
+     * Writes the bytes written to it as frames of the given type.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out_;
+        private final byte type_;
+
+        FrameOutputStream(DataOutputStream out, byte type) {
+            out_ = out;
+            type_ = type;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out_) {
+                out_.flush();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                synchronized (out_) {
+                    out_.writeByte(type_);
+                    out_.writeInt(len);
+                    out_.write(b, off, len);
+                }
+            }
+        }
+    }
+
+}
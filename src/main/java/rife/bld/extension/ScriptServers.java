@@ -0,0 +1,308 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Starts and reuses {@link ScriptServer script servers}, one per resolved script classpath.
+ * <p>
+ * Servers are keyed by their java executable and options, the script classpath, the working
+ * directory and the environment variables, since neither of these can be changed inside a running
+ * JVM. They shut themselves down when idle, and are all stopped when the build ends. A server that does
+ * not report its port within {@link #START_TIMEOUT 30 seconds}, or the execution's timeout if shorter, is
+ * destroyed, so that a JVM hanging on startup cannot block the build.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class ScriptServers {
+
+    /**
+     * The maximum time a server may take to start.
+     */
+    static final Duration START_TIMEOUT = Duration.ofSeconds(30);
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Map<String, Server> SERVERS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ScriptServers::shutdown, "jbang-server-shutdown"));
+    }
+
+    private ScriptServers() {
+        // no-op
+    }
+
+    /**
+     * Determines whether a script can run in a server.
+     * <p>
+     * The server is compiled for Java 17, and traps {@code System.exit()} with a security manager, which
+     * can no longer be installed on Java 24 and later, so scripts must run on Java 17 through 23.
+     *
+     * @param launch the launch information
+     * @return {@code true} if the script can run in a server, {@code false} otherwise
+     */
+    static boolean isSupported(LaunchCache.Launch launch) {
+        var version = launch.javaVersion();
+        return version >= 17 && version <= 23;
+    }
+
+    /**
+     * Runs a script in a server, starting a new server if needed.
+     *
+     * @param launch      the launch information
+     * @param javaOptions the java options
+     * @param workDir     the working directory
+     * @param env         the environment variables
+     * @param args        the script arguments
+     * @param output      the consumer receiving the output lines, or {@code null} to write to the console
+     * @param timeout     the timeout, or a negative duration to wait indefinitely
+     * @param idleTimeout the number of idle seconds after which a new server shuts down
+     * @return the result
+     * @throws IOException          if the server could not be started or reached
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    static JBangResult run(LaunchCache.Launch launch, List<String> javaOptions, File workDir, Map<String, String> env,
+                           List<String> args, Consumer<String> output, Duration timeout, long idleTimeout)
+            throws IOException, InterruptedException {
+        var key = new Fingerprint()
+                .add(launch.java())
+                .add(launch.runtimeOptions())
+                .add(javaOptions)
+                .add(launch.classpath())
+                .add(workDir.getAbsolutePath())
+                .add(env)
+                .hex();
+
+        IOException failure = null;
+        for (var attempt = 0; attempt < 2; attempt++) {
+            Server server;
+            synchronized (SERVERS) {
+                server = SERVERS.get(key);
+                if (server == null || !server.process_.isAlive()) {
+                    server = Server.start(launch, javaOptions, workDir, env, idleTimeout,
+                            timeout.isNegative() || timeout.compareTo(START_TIMEOUT) > 0 ? START_TIMEOUT : timeout);
+                    SERVERS.put(key, server);
+                }
+            }
+            try {
+                return server.invoke(launch, args, output, timeout);
+            } catch (IOException e) {
+                // the server may have shut down while idle, try a new one
+                failure = e;
+                SERVERS.remove(key, server);
+                server.stop();
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Stops all servers.
+     */
+    static void shutdown() {
+        synchronized (SERVERS) {
+            SERVERS.values().forEach(Server::stop);
+            SERVERS.clear();
+        }
+    }
+
+    private static final class Server {
+        private final int port_;
+        private final Process process_;
+        private final String token_;
+
+        private Server(Process process, int port, String token) {
+            process_ = process;
+            port_ = port;
+            token_ = token;
+        }
+
+        static Server start(LaunchCache.Launch launch, List<String> javaOptions, File workDir,
+                            Map<String, String> env, long idleTimeout, Duration startTimeout)
+                throws IOException, InterruptedException {
+            Path self;
+            try {
+                self = Path.of(ScriptServer.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException("Could not locate the script server classes", e);
+            }
+
+            var command = new ArrayList<String>();
+            command.add(launch.java());
+            command.addAll(launch.runtimeOptions());
+            command.addAll(javaOptions);
+            if (launch.javaVersion() >= 18) {
+                command.add("-Djava.security.manager=allow");
+            }
+            command.add("-cp");
+            command.add(self.toString());
+            command.addAll(ScriptServer.arguments(idleTimeout));
+
+            var builder = new ProcessBuilder(command)
+                    .directory(workDir)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT);
+            builder.environment().putAll(new TreeMap<>(env));
+            var process = builder.start();
+
+            var bytes = new byte[32];
+            RANDOM.nextBytes(bytes);
+            var token = HexFormat.of().formatHex(bytes);
+            try (OutputStream stdin = process.getOutputStream()) {
+                stdin.write((token + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+
+            // the port is read on another thread, since a hanging JVM may never print it
+            var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            var portLine = new CompletableFuture<String>();
+            ThreadSupport.start("jbang-server-start", () -> {
+                try {
+                    portLine.complete(reader.readLine());
+                } catch (IOException e) {
+                    portLine.completeExceptionally(e);
+                }
+            });
+            String line;
+            try {
+                line = portLine.get(Math.max(1L, startTimeout.toMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                process.destroyForcibly();
+                throw new IOException("The script server did not start within " + startTimeout.toMillis() + " ms");
+            } catch (ExecutionException e) {
+                process.destroyForcibly();
+                throw new IOException("The script server did not start", e.getCause());
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                throw e;
+            }
+            if (line == null || !line.startsWith(ScriptServer.PORT_PREFIX)) {
+                process.destroyForcibly();
+                throw new IOException("The script server did not start: " + line);
+            }
+            return new Server(process, Integer.parseInt(line.substring(ScriptServer.PORT_PREFIX.length())), token);
+        }
+
+        synchronized JBangResult invoke(LaunchCache.Launch launch, List<String> args, Consumer<String> output,
+                                        Duration timeout) throws IOException, InterruptedException {
+            var start = System.nanoTime();
+            var deadline = timeout.isNegative() ? 0L : start + timeout.toNanos();
+            try (var socket = new Socket(InetAddress.getLoopbackAddress(), port_)) {
+                var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                ScriptServer.writeString(out, token_);
+                ScriptServer.writeString(out, launch.mainClass());
+                var classpath = launch.classpath().split(File.pathSeparator);
+                out.writeInt(classpath.length);
+                for (var entry : classpath) {
+                    ScriptServer.writeString(out, entry);
+                }
+                out.writeInt(args.size());
+                for (var arg : args) {
+                    ScriptServer.writeString(out, arg);
+                }
+                out.flush();
+
+                var stdout = output == null ? System.out : new LineOutputStream(output, StandardCharsets.UTF_8);
+                var stderr = output == null ? System.err : new LineOutputStream(output, StandardCharsets.UTF_8);
+                var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                var started = false;
+                var bytes = 0L;
+                Duration firstOutput = null;
+                try {
+                    while (true) {
+                        if (deadline != 0L) {
+                            var remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                            if (remaining <= 0) {
+                                throw new SocketTimeoutException();
+                            }
+                            socket.setSoTimeout((int) Math.min(remaining, Integer.MAX_VALUE));
+                        }
+                        var type = in.readByte();
+                        started = true;
+                        if (type == ScriptServer.FRAME_EXIT) {
+                            return new JBangResult(in.readInt(), false, firstOutput, bytes, null, -1L);
+                        }
+                        var frame = new byte[in.readInt()];
+                        in.readFully(frame);
+                        if (firstOutput == null) {
+                            firstOutput = Duration.ofNanos(System.nanoTime() - start);
+                        }
+                        bytes += frame.length;
+                        (type == ScriptServer.FRAME_ERR ? stderr : stdout).write(frame);
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                    }
+                } catch (SocketTimeoutException e) {
+                    stop();
+                    return new JBangResult(ExitStatusException.EXIT_FAILURE, true);
+                } catch (IOException e) {
+                    if (started) {
+                        // the script terminated the server, for example by halting the JVM
+                        stop();
+                        return new JBangResult(ExitStatusException.EXIT_FAILURE, false);
+                    }
+                    throw e;
+                } catch (InterruptedException e) {
+                    stop();
+                    throw e;
+                } finally {
+                    if (output != null) {
+                        stdout.close();
+                        stderr.close();
+                    } else {
+                        stdout.flush();
+                        stderr.flush();
+                    }
+                }
+            }
+        }
+
+        void stop() {
+            process_.descendants().forEach(ProcessHandle::destroyForcibly);
+            process_.destroyForcibly();
+        }
+    }
+}
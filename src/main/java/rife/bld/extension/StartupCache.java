@@ -0,0 +1,130 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Computes the JVM options recording and using a class-data-sharing archive, or an AOT cache,
+ * for a script.
+ * <p>
+ * Archives are stored under the {@code cds} directory of the operation's cache directory, named
+ * after a fingerprint of the script path, and of its JDK, classpath, application jar and runtime
+ * Java options. A change to any of them leads to a new archive being recorded on the next run,
+ * and older archives of the same script are deleted.
+ * <p>
+ * The options depend on the script's JDK:
+ * <ul>
+ *     <li>25 and later: {@code -XX:AOTCacheOutput} on the first run, then {@code -XX:AOTCache}</li>
+ *     <li>19 to 24: {@code -XX:+AutoCreateSharedArchive} with {@code -XX:SharedArchiveFile}</li>
+ *     <li>13 to 18: {@code -XX:ArchiveClassesAtExit} on the first run, then {@code -XX:SharedArchiveFile}</li>
+ * </ul>
+ * Older JDKs get no options.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class StartupCache {
+
+    private static final List<String> USER_OPTIONS = List.of("-XX:AOTCache", "-XX:AOTCacheOutput",
+            "-XX:AOTConfiguration", "-XX:AOTMode", "-XX:ArchiveClassesAtExit", "-XX:SharedArchiveFile",
+            "-XX:+AutoCreateSharedArchive", "-Xshare:");
+    private static final Logger logger = Logger.getLogger(JBangOperation.class.getName());
+
+    private StartupCache() {
+        // no-op
+    }
+
+    /**
+     * Returns the JVM options recording or using the startup archive of a script.
+     *
+     * @param op     the operation
+     * @param launch the resolved launch information of the script
+     * @param script the script file
+     * @param direct {@code true} if the script is launched directly, {@code false} if through JBang
+     * @return the JVM options, empty if the JDK does not support archives or the options were
+     * already specified
+     * @throws IOException if the cache directory could not be created
+     */
+    static List<String> options(JBangOperation op, LaunchCache.Launch launch, File script, boolean direct)
+            throws IOException {
+        var options = new ArrayList<String>();
+        var version = launch.javaVersion();
+        var javaOptions = LaunchCache.javaOptions(op.jBangArgs());
+        if (version < 13 || javaOptions.stream().anyMatch(o -> USER_OPTIONS.stream().anyMatch(o::startsWith))) {
+            return options;
+        }
+
+        var classpath = launch.classpath().split(File.pathSeparator);
+        var prefix = new Fingerprint()
+                .add(script.getAbsolutePath())
+                .add(String.valueOf(direct))
+                .hex()
+                .substring(0, 16);
+        var key = new Fingerprint()
+                .add(launch.java())
+                .add(String.valueOf(version))
+                .add(launch.classpath())
+                .add(new File(classpath[0]))
+                .add(launch.runtimeOptions())
+                .add(javaOptions)
+                .hex()
+                .substring(0, 32);
+
+        var dir = new File(op.effectiveCacheDirectory(), "cds");
+        var archive = new File(dir, prefix + '-' + key + (version >= 25 ? ".aot" : ".jsa"));
+        if (!archive.isFile()) {
+            Files.createDirectories(dir.toPath());
+            deleteStale(op, dir, prefix, archive);
+        }
+
+        if (version >= 25) {
+            options.add((archive.isFile() ? "-XX:AOTCache=" : "-XX:AOTCacheOutput=") + archive.getAbsolutePath());
+            options.add("-Xlog:aot=off,cds=off");
+        } else if (version >= 19) {
+            options.add("-XX:+AutoCreateSharedArchive");
+            options.add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+            options.add("-Xlog:cds=off");
+        } else {
+            options.add((archive.isFile() ? "-XX:SharedArchiveFile=" : "-XX:ArchiveClassesAtExit=")
+                    + archive.getAbsolutePath());
+            options.add("-Xlog:cds=off");
+        }
+        return options;
+    }
+
+    private static void deleteStale(JBangOperation op, File dir, String prefix, File archive) {
+        var stale = dir.listFiles((d, name) -> name.startsWith(prefix + '-') && !name.equals(archive.getName()));
+        if (stale != null) {
+            for (var file : stale) {
+                try {
+                    Files.deleteIfExists(file.toPath());
+                } catch (IOException e) {
+                    if (logger.isLoggable(Level.FINE) && !op.silent()) {
+                        logger.fine("Could not delete stale startup archive: " + file);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+
+/**
+ * Starts background threads, using virtual threads when the runtime supports them.
+ * <p>
+ * The extension targets Java 17, so virtual threads are looked up reflectively and platform
+ * daemon threads are used on runtimes that do not provide them.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class ThreadSupport {
+
+    private static final Executor EXECUTOR = task -> start("jbang-async", task);
+    private static final Method START_VIRTUAL_THREAD = findStartVirtualThread();
+
+    private ThreadSupport() {
+        // no-op
+    }
+
+    /**
+     * Returns an executor that runs each task on a new background thread.
+     *
+     * @return the executor
+     */
+    static Executor executor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Determines whether virtual threads are available.
+     *
+     * @return {@code true} if virtual threads are used, {@code false} otherwise
+     */
+    static boolean isVirtual() {
+        return START_VIRTUAL_THREAD != null;
+    }
+
+    /**
+     * Starts a background thread.
+     *
+     * @param name the name of the thread, if a platform thread is used
+     * @param task the task to run
+     * @return the started thread
+     */
+    static Thread start(String name, Runnable task) {
+        if (START_VIRTUAL_THREAD != null) {
+            try {
+                return (Thread) START_VIRTUAL_THREAD.invoke(null, task);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                // fall back to a platform thread
+            }
+        }
+        var thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static Method findStartVirtualThread() {
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
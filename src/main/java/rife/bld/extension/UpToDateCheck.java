@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Determines whether a JBang operation is up-to-date with its declared inputs and outputs.
+ * <p>
+ * The operation is identified by its work directory, script and outputs. After each successful
+ * execution, a fingerprint of the script and its {@link ScriptDirectives sources}, its arguments,
+ * environment, classpath and input contents, including the {@link JBangOperation#input(File) input file}, is
+ * recorded in the {@link JBangOperation#cacheDirectory() cache directory}. The operation is up-to-date when
+ * the fingerprint is unchanged and all outputs still exist. Operations reading a stream are never up-to-date.
+ *
+ * @author <a href="https://erik.thauvin.net/">Erik C. Thauvin</a>
+ * @since 1.3
+ */
+final class UpToDateCheck {
+
+    private final String fingerprint_;
+    private final List<File> outputs_ = new ArrayList<>();
+    private final File stateFile_;
+
+    /**
+     * Computes the current fingerprint of an operation.
+     *
+     * @param op    the operation
+     * @param input the input file, or {@code null}
+     * @throws IOException if an input could not be read
+     */
+    UpToDateCheck(JBangOperation op, File input) throws IOException {
+        var outputPaths = new ArrayList<String>();
+        for (var output : op.outputs()) {
+            var file = op.resolveFile(output);
+            outputs_.add(file);
+            outputPaths.add(file.getPath());
+        }
+
+        var key = new Fingerprint()
+                .add(op.workDir().getAbsolutePath())
+                .add(op.script())
+                .add(outputPaths)
+                .hex();
+        stateFile_ = new File(new File(op.effectiveCacheDirectory(), "uptodate"), key);
+
+        var fingerprint = new Fingerprint()
+                .add(op.script())
+                .add(op.jBangArgs())
+                .add(op.args())
+                .add(op.env());
+        var script = op.scriptFile();
+        if (script != null) {
+            fingerprint.addScript(script);
+        }
+        for (var entry : op.classpath()) {
+            // jars are rebuilt rather than edited in place, so their size and time are enough
+            var file = op.resolveFile(entry);
+            fingerprint.add(file.getPath()).addStamp(file);
+        }
+        for (var entry : op.inputs()) {
+            var file = op.resolveFile(entry);
+            fingerprint.add(file.getPath()).add(file);
+        }
+        if (input != null) {
+            fingerprint.add(input.getPath()).add(input);
+        }
+        fingerprint_ = fingerprint.hex();
+    }
+
+    /**
+     * Removes the recorded fingerprint.
+     *
+     * @throws IOException if the fingerprint could not be removed
+     */
+    void invalidate() throws IOException {
+        Files.deleteIfExists(stateFile_.toPath());
+    }
+
+    /**
+     * Determines whether the operation is up-to-date.
+     *
+     * @return {@code true} if the fingerprint is unchanged and all outputs exist, {@code false} otherwise
+     */
+    boolean isUpToDate() {
+        if (!stateFile_.isFile()) {
+            return false;
+        }
+        for (var output : outputs_) {
+            if (!output.exists()) {
+                return false;
+            }
+        }
+        try {
+            return fingerprint_.equals(Files.readString(stateFile_.toPath(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records the fingerprint after a successful execution.
+     *
+     * @throws IOException if the fingerprint could not be written
+     */
+    void record() throws IOException {
+        Files.createDirectories(stateFile_.getParentFile().toPath());
+        Files.writeString(stateFile_.toPath(), fingerprint_, StandardCharsets.UTF_8);
+    }
+}
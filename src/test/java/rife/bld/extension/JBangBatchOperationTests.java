@@ -0,0 +1,137 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import rife.bld.extension.testing.LoggingExtension;
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static rife.bld.extension.TestScripts.writeScript;
+
+@ExtendWith(LoggingExtension.class)
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "DataFlowIssue"})
+class JBangBatchOperationTests {
+
+    @Nested
+    @DisplayName("Execute Tests")
+    class ExecuteTests {
+
+        @Test
+        void executeEmptyBatch() {
+            var op = new JBangBatchOperation();
+            assertDoesNotThrow(op::execute);
+            assertTrue(op.results().isEmpty());
+        }
+
+        @Test
+        void executeFailureWithExitOnFailure(@TempDir Path tempDir) throws IOException {
+            var ok = writeScript(tempDir, "ok", "System.out.println(\"ok\");");
+            var fail = writeScript(tempDir, "fail", "System.exit(3);");
+
+            var op = new JBangBatchOperation().operations(
+                    new JBangOperation().workDir(tempDir).script(ok.toString()).inheritIO(false),
+                    new JBangOperation().workDir(tempDir).script(fail.toString()).inheritIO(false));
+
+            var ex = assertThrows(ExitStatusException.class, op::execute);
+            assertEquals(3, ex.getExitStatus());
+            assertEquals(2, op.results().size());
+            assertEquals(0, op.results().get(0).exitCode());
+            assertEquals(3, op.results().get(1).exitCode());
+        }
+
+        @Test
+        void executeFailureWithoutExitOnFailure(@TempDir Path tempDir) throws IOException {
+            var fail = writeScript(tempDir, "fail", "System.exit(3);");
+
+            var op = new JBangBatchOperation().operations(
+                    new JBangOperation().workDir(tempDir).script(fail.toString()).exitOnFailure(false));
+
+            assertDoesNotThrow(op::execute);
+            assertEquals(3, op.results().get(0).exitCode());
+        }
+
+        @Test
+        void executeInParallel(@TempDir Path tempDir) throws IOException {
+            var ops = new JBangOperation[4];
+            for (var i = 0; i < ops.length; i++) {
+                var script = writeScript(tempDir, "write" + i,
+                        "java.nio.file.Files.writeString(java.nio.file.Path.of(args[0]), \"" + i + "\");");
+                ops[i] = new JBangOperation()
+                        .workDir(tempDir)
+                        .jBangArgs("--quiet")
+                        .script(script.toString())
+                        .args(tempDir.resolve(i + ".txt").toString());
+            }
+
+            var op = new JBangBatchOperation().concurrency(2).operations(ops);
+            assertDoesNotThrow(op::execute);
+
+            for (var i = 0; i < ops.length; i++) {
+                assertEquals(String.valueOf(i), Files.readString(tempDir.resolve(i + ".txt")));
+                assertTrue(op.results().get(i).isSuccess());
+            }
+        }
+
+        @Test
+        void executeWithInvalidWorkDir() {
+            var op = new JBangBatchOperation().operations(new JBangOperation().workDir("foo").silent(true));
+            assertThrows(ExitStatusException.class, op::execute);
+            assertEquals(ExitStatusException.EXIT_FAILURE, op.results().get(0).exitCode());
+        }
+    }
+
+    @Nested
+    @DisplayName("Options Tests")
+    class OptionsTests {
+
+        @Test
+        void verifyConcurrency() {
+            var op = new JBangBatchOperation().concurrency(3);
+            assertEquals(3, op.concurrency());
+        }
+
+        @Test
+        void verifyConcurrencyDefault() {
+            var op = new JBangBatchOperation();
+            assertEquals(Runtime.getRuntime().availableProcessors(), op.concurrency());
+        }
+
+        @Test
+        void verifyConcurrencyRejectsZero() {
+            var op = new JBangBatchOperation();
+            assertThrows(IllegalArgumentException.class, () -> op.concurrency(0));
+        }
+
+        @Test
+        void verifyOperations() {
+            var first = new JBangOperation();
+            var second = new JBangOperation();
+            var op = new JBangBatchOperation().operations(first).operations(List.of(second));
+            assertEquals(List.of(first, second), op.operations());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import rife.bld.extension.testing.LoggingExtension;
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static rife.bld.extension.TestScripts.writeScript;
+
+@ExtendWith(LoggingExtension.class)
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "DataFlowIssue"})
+class JBangGraphOperationTests {
+
+    private static JBangOperation touch(Path dir, String name) throws IOException {
+        var script = writeScript(dir, name,
+                "java.nio.file.Files.writeString(java.nio.file.Path.of(\"" + name + ".txt\"), \"done\");");
+        return new JBangOperation().workDir(dir).jBangArgs("--quiet").script(script.toString());
+    }
+
+    private static JBangOperation fail(Path dir) throws IOException {
+        var script = writeScript(dir, "fail", "System.exit(5);");
+        return new JBangOperation().workDir(dir).jBangArgs("--quiet").script(script.toString());
+    }
+
+    @Nested
+    @DisplayName("Execute Tests")
+    class ExecuteTests {
+
+        @Test
+        void executeCircularDependencies() {
+            var op = new JBangGraphOperation()
+                    .node("a", new JBangOperation(), "b")
+                    .node("b", new JBangOperation(), "a")
+                    .silent(true);
+            assertThrows(ExitStatusException.class, op::execute);
+            assertTrue(op.results().isEmpty());
+        }
+
+        @Test
+        void executeDependencies(@TempDir Path tempDir) throws Exception {
+            var op = new JBangGraphOperation()
+                    .node("docs", touch(tempDir, "docs"), "codegen")
+                    .node("codegen", touch(tempDir, "codegen"), "schema")
+                    .node("schema", touch(tempDir, "schema"))
+                    .node("lint", touch(tempDir, "lint"));
+            op.execute();
+
+            assertEquals(List.of("schema", "lint", "codegen", "docs"), List.copyOf(op.results().keySet()));
+            assertTrue(op.results().values().stream().allMatch(JBangResult::isSuccess));
+            for (var name : List.of("schema", "codegen", "docs", "lint")) {
+                assertTrue(Files.exists(tempDir.resolve(name + ".txt")), name);
+            }
+            assertEquals("docs", op.criticalPath().get(op.criticalPath().size() - 1));
+            assertTrue(op.criticalPath().contains("codegen"), op.criticalPath().toString());
+        }
+
+        @Test
+        void executeEmptyGraph() {
+            var op = new JBangGraphOperation();
+            assertDoesNotThrow(op::execute);
+            assertTrue(op.results().isEmpty());
+            assertTrue(op.criticalPath().isEmpty());
+        }
+
+        @Test
+        void executeFailureSkipsDependents(@TempDir Path tempDir) throws IOException {
+            var op = new JBangGraphOperation()
+                    .node("schema", fail(tempDir))
+                    .node("codegen", touch(tempDir, "codegen"), "schema")
+                    .node("docs", touch(tempDir, "docs"), "codegen")
+                    .node("lint", touch(tempDir, "lint"));
+
+            var ex = assertThrows(ExitStatusException.class, op::execute);
+            assertEquals(5, ex.getExitStatus());
+            assertEquals(5, op.results().get("schema").exitCode());
+            assertFalse(op.results().containsKey("codegen"));
+            assertFalse(op.results().containsKey("docs"));
+            assertFalse(Files.exists(tempDir.resolve("docs.txt")));
+            assertTrue(Files.exists(tempDir.resolve("lint.txt")), "independent nodes should still run");
+        }
+
+        @Test
+        void executeFailureWithoutExitOnFailure(@TempDir Path tempDir) throws Exception {
+            var op = new JBangGraphOperation()
+                    .node("schema", fail(tempDir).exitOnFailure(false))
+                    .node("codegen", touch(tempDir, "codegen"), "schema");
+            op.execute();
+            assertEquals(5, op.results().get("schema").exitCode());
+            assertTrue(Files.exists(tempDir.resolve("codegen.txt")));
+        }
+
+        @Test
+        void executeUnknownDependency() {
+            var op = new JBangGraphOperation().node("a", new JBangOperation(), "missing").silent(true);
+            assertThrows(ExitStatusException.class, op::execute);
+        }
+    }
+
+    @Nested
+    @DisplayName("Options Tests")
+    class OptionsTests {
+
+        @Test
+        void verifyConcurrency() {
+            var op = new JBangGraphOperation();
+            assertEquals(Runtime.getRuntime().availableProcessors(), op.concurrency());
+            assertEquals(2, op.concurrency(2).concurrency());
+            assertThrows(IllegalArgumentException.class, () -> op.concurrency(0));
+        }
+
+        @Test
+        void verifyNodes() {
+            var op = new JBangGraphOperation()
+                    .node("b", new JBangOperation(), "a")
+                    .node("a", new JBangOperation());
+            assertEquals(List.of("b", "a"), op.nodes());
+            assertThrows(IllegalArgumentException.class, () -> op.node("a", new JBangOperation()));
+            assertThrows(IllegalArgumentException.class, () -> op.node("c", new JBangOperation(), ""));
+        }
+    }
+}
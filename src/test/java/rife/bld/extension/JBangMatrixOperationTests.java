@@ -0,0 +1,194 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import rife.bld.extension.testing.LoggingExtension;
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static rife.bld.extension.TestScripts.writeScript;
+
+@ExtendWith(LoggingExtension.class)
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "DataFlowIssue"})
+class JBangMatrixOperationTests {
+
+    private static Path writeShard(Path dir) throws IOException {
+        return writeScript(dir, "shard", """
+                System.out.println("shard " + String.join(",", args));
+                if (args[args.length - 1].equals("fail")) {
+                    System.exit(4);
+                }
+                if (args[args.length - 1].equals("lines")) {
+                    for (var i = 0; i < 5; i++) {
+                        System.out.println("line " + i);
+                    }
+                }""");
+    }
+
+    @Nested
+    @DisplayName("Execute Tests")
+    class ExecuteTests {
+
+        @Test
+        void executeEmptyMatrix() {
+            var op = new JBangMatrixOperation().operation(new JBangOperation());
+            assertDoesNotThrow(op::execute);
+            assertTrue(op.results().isEmpty());
+        }
+
+        @Test
+        void executeFailure(@TempDir Path tempDir) throws IOException {
+            var op = new JBangMatrixOperation()
+                    .operation(new JBangOperation().workDir(tempDir).jBangArgs("--quiet")
+                            .script(writeShard(tempDir).toString()))
+                    .args("ok")
+                    .args("fail");
+
+            var ex = assertThrows(ExitStatusException.class, op::execute);
+            assertEquals(4, ex.getExitStatus());
+            assertEquals(0, op.results().get(0).exitCode());
+            assertEquals(4, op.results().get(1).exitCode());
+        }
+
+        @Test
+        void executeOutputCapped(@TempDir Path tempDir) throws Exception {
+            var lines = new ArrayList<String>();
+            var op = new JBangMatrixOperation()
+                    .operation(new JBangOperation().workDir(tempDir).jBangArgs("--quiet")
+                            .script(writeShard(tempDir).toString())
+                            .outputConsumer(lines::add))
+                    .maxOutputLines(2)
+                    .args("lines")
+                    .args("ok");
+
+            op.execute();
+            assertEquals(List.of(List.of("line 3", "line 4"), List.of("shard ok")), op.outputs());
+            assertEquals(List.of("line 3", "line 4", "shard ok"), lines);
+        }
+
+        @Test
+        void executeShardsSeparately(@TempDir Path tempDir) throws Exception {
+            var lines = new ArrayList<String>();
+            var template = new JBangOperation()
+                    .workDir(tempDir)
+                    .jBangArgs("--quiet")
+                    .script(writeShard(tempDir).toString())
+                    .args("common")
+                    .outputConsumer(lines::add);
+            var op = new JBangMatrixOperation().concurrency(2).operation(template);
+            for (var i = 0; i < 4; i++) {
+                op.args("part-" + i);
+            }
+            op.execute();
+
+            assertEquals(4, op.results().size());
+            for (var i = 0; i < 4; i++) {
+                assertTrue(op.results().get(i).isSuccess());
+                assertEquals(List.of("shard common,part-" + i), op.outputs().get(i));
+            }
+            assertEquals(List.of("shard common,part-0", "shard common,part-1", "shard common,part-2",
+                    "shard common,part-3"), lines, "outputs should be replayed in shard order");
+            assertEquals(List.of("common"), template.args(), "the template should not be modified");
+        }
+
+        @Test
+        void executeSharedOutputs(@TempDir Path tempDir) throws IOException {
+            var op = new JBangMatrixOperation()
+                    .operation(new JBangOperation().workDir(tempDir).script(writeShard(tempDir).toString())
+                            .outputFile(tempDir.resolve("out.txt")))
+                    .args("ok");
+            assertThrows(ExitStatusException.class, op::execute);
+            assertTrue(op.results().isEmpty());
+            assertFalse(Files.exists(tempDir.resolve("out.txt")));
+
+            op.operation(new JBangOperation().workDir(tempDir).script(writeShard(tempDir).toString())
+                    .errorFile(tempDir.resolve("err.txt")));
+            assertThrows(ExitStatusException.class, op::execute);
+
+            op.operation(new JBangOperation().workDir(tempDir).script(writeShard(tempDir).toString())
+                    .errorConsumer(line -> {
+                    }));
+            assertThrows(ExitStatusException.class, op::execute);
+        }
+
+        @Test
+        void executeStreamedInput(@TempDir Path tempDir) throws IOException {
+            var op = new JBangMatrixOperation()
+                    .operation(new JBangOperation().workDir(tempDir).script(writeShard(tempDir).toString())
+                            .input(new ByteArrayInputStream(new byte[0])))
+                    .args("ok");
+            assertThrows(ExitStatusException.class, op::execute);
+            assertTrue(op.results().isEmpty());
+
+            op.operation().input(() -> null);
+            assertThrows(ExitStatusException.class, op::execute);
+        }
+
+        @Test
+        void executeWithoutOperation() {
+            var op = new JBangMatrixOperation().args("foo").silent(true);
+            assertThrows(ExitStatusException.class, op::execute);
+        }
+    }
+
+    @Nested
+    @DisplayName("Options Tests")
+    class OptionsTests {
+
+        @Test
+        void verifyArgs() {
+            var op = new JBangMatrixOperation().args("a", "b").args(List.of("c"));
+            assertEquals(List.of(List.of("a", "b"), List.of("c")), op.args());
+        }
+
+        @Test
+        void verifyConcurrency() {
+            var op = new JBangMatrixOperation();
+            assertEquals(Runtime.getRuntime().availableProcessors(), op.concurrency());
+            assertEquals(3, op.concurrency(3).concurrency());
+            assertThrows(IllegalArgumentException.class, () -> op.concurrency(0));
+        }
+
+        @Test
+        void verifyMaxOutputLines() {
+            var op = new JBangMatrixOperation();
+            assertEquals(10_000, op.maxOutputLines());
+            assertEquals(5, op.maxOutputLines(5).maxOutputLines());
+            assertThrows(IllegalArgumentException.class, () -> op.maxOutputLines(0));
+        }
+
+        @Test
+        void verifyOperation() {
+            var template = new JBangOperation();
+            var op = new JBangMatrixOperation();
+            assertNull(op.operation());
+            assertSame(template, op.operation(template).operation());
+        }
+    }
+}
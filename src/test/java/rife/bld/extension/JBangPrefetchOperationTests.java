@@ -0,0 +1,195 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import rife.bld.dependencies.Repository;
+import rife.bld.extension.testing.LoggingExtension;
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static rife.bld.extension.TestScripts.writeScript;
+
+@ExtendWith(LoggingExtension.class)
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "DataFlowIssue"})
+class JBangPrefetchOperationTests {
+
+    private static void deploy(Path repo, String artifactId, String dependencies) throws IOException {
+        var dir = Files.createDirectories(repo.resolve("com/example/" + artifactId + "/1.0"));
+        Files.writeString(dir.resolve(artifactId + "-1.0.pom"), """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <project xmlns="http://maven.apache.org/POM/4.0.0">
+                    <modelVersion>4.0.0</modelVersion>
+                    <groupId>com.example</groupId>
+                    <artifactId>%s</artifactId>
+                    <version>1.0</version>
+                    <dependencies>%s</dependencies>
+                </project>
+                """.formatted(artifactId, dependencies));
+        Files.write(dir.resolve(artifactId + "-1.0.jar"), new byte[]{'P', 'K', 3, 4});
+    }
+
+    private static Path localRepository(Path tempDir) throws IOException {
+        var repo = tempDir.resolve("remote");
+        deploy(repo, "util", "");
+        deploy(repo, "greeting", """
+                <dependency>
+                    <groupId>com.example</groupId>
+                    <artifactId>util</artifactId>
+                    <version>1.0</version>
+                </dependency>""");
+        return repo;
+    }
+
+    @Nested
+    @DisplayName("Execute Tests")
+    class ExecuteTests {
+
+        @Test
+        void executeAlreadyPrefetched(@TempDir Path tempDir) throws Exception {
+            var script = writeScript(tempDir, "hello", "//DEPS com.example:greeting:1.0", "");
+            var op = new JBangPrefetchOperation()
+                    .repositories(new Repository(localRepository(tempDir).toAbsolutePath() + File.separator))
+                    .localRepository(tempDir.resolve("m2"))
+                    .scripts(script.toFile());
+
+            op.execute();
+            assertEquals(4, op.artifacts().size());
+            op.execute();
+            assertTrue(op.artifacts().isEmpty());
+        }
+
+        @Test
+        void executeFromOperations(@TempDir Path tempDir) throws Exception {
+            writeScript(tempDir, "hello", "//DEPS com.example:util:1.0", "");
+            var m2 = tempDir.resolve("m2");
+            var op = new JBangPrefetchOperation()
+                    .repositories(new Repository(localRepository(tempDir).toAbsolutePath() + File.separator))
+                    .localRepository(m2)
+                    .operations(new JBangOperation().workDir(tempDir).script("hello.java"),
+                            new JBangOperation().script("https://example.com/remote.java"));
+
+            op.execute();
+            assertTrue(Files.isRegularFile(m2.resolve("com/example/util/1.0/util-1.0.jar")));
+            assertFalse(Files.exists(m2.resolve("com/example/greeting")));
+        }
+
+        @Test
+        void executeMissingScript(@TempDir Path tempDir) {
+            var op = new JBangPrefetchOperation().workDir(tempDir.toFile()).scripts("missing.java");
+            assertThrows(ExitStatusException.class, op::execute);
+        }
+
+        @Test
+        void executeNoDependencies(@TempDir Path tempDir) throws Exception {
+            var op = new JBangPrefetchOperation()
+                    .localRepository(tempDir.resolve("m2"))
+                    .scripts(writeScript(tempDir, "hello", "", "").toFile());
+            assertDoesNotThrow(op::execute);
+            assertTrue(op.artifacts().isEmpty());
+            assertFalse(Files.exists(tempDir.resolve("m2")));
+        }
+
+        @Test
+        void executeTransitive(@TempDir Path tempDir) throws Exception {
+            var script = writeScript(tempDir, "hello", "//DEPS com.example:greeting:1.0", "");
+            var m2 = tempDir.resolve("m2");
+            var op = new JBangPrefetchOperation()
+                    .repositories(new Repository(localRepository(tempDir).toAbsolutePath() + File.separator))
+                    .localRepository(m2)
+                    .workDir(tempDir.toFile())
+                    .scripts("hello.java");
+
+            op.execute();
+            assertTrue(Files.isRegularFile(m2.resolve("com/example/greeting/1.0/greeting-1.0.jar")));
+            assertTrue(Files.isRegularFile(m2.resolve("com/example/greeting/1.0/greeting-1.0.pom")));
+            assertTrue(Files.isRegularFile(m2.resolve("com/example/util/1.0/util-1.0.jar")));
+            assertTrue(Files.isRegularFile(m2.resolve("com/example/util/1.0/util-1.0.pom")));
+            assertTrue(Files.isRegularFile(script));
+        }
+
+        @Test
+        void executeUnresolvedDependency(@TempDir Path tempDir) throws Exception {
+            var script = writeScript(tempDir, "hello",
+                    "//DEPS com.example:missing:1.0 com.example:util:1.0\n//DEPS not-a-dependency", "");
+            var m2 = tempDir.resolve("m2");
+            var op = new JBangPrefetchOperation()
+                    .repositories(new Repository(localRepository(tempDir).toAbsolutePath() + File.separator))
+                    .localRepository(m2)
+                    .concurrency(1)
+                    .scripts(script.toFile());
+
+            assertDoesNotThrow(op::execute);
+            assertTrue(Files.isRegularFile(m2.resolve("com/example/util/1.0/util-1.0.jar")));
+            assertFalse(Files.exists(m2.resolve("com/example/missing/1.0/missing-1.0.jar")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Options Tests")
+    class OptionsTests {
+
+        @Test
+        void concurrencyMustBePositive() {
+            var op = new JBangPrefetchOperation();
+            assertThrows(IllegalArgumentException.class, () -> op.concurrency(0));
+            assertEquals(2, op.concurrency(2).concurrency());
+        }
+
+        @Test
+        void defaultLocalRepository() {
+            var repo = System.getenv("JBANG_REPO");
+            var expected = repo != null && !repo.isBlank()
+                    ? new File(repo)
+                    : Path.of(System.getProperty("user.home"), ".m2", "repository").toFile();
+            assertEquals(expected, JBangPrefetchOperation.defaultLocalRepository());
+            assertNull(new JBangPrefetchOperation().localRepository());
+        }
+
+        @Test
+        void repositoryEntries() {
+            assertEquals(Repository.MAVEN_CENTRAL.location(),
+                    JBangPrefetchOperation.repository("mavencentral").location());
+            assertEquals(Repository.MAVEN_CENTRAL.location(), JBangPrefetchOperation.repository("Central").location());
+            assertEquals("https://jitpack.io/", JBangPrefetchOperation.repository("jitpack").location());
+            assertEquals("https://repo.example.com/maven",
+                    JBangPrefetchOperation.repository("acme=https://repo.example.com/maven").location());
+            assertEquals("https://repo.example.com/maven",
+                    JBangPrefetchOperation.repository("https://repo.example.com/maven").location());
+            assertNull(JBangPrefetchOperation.repository("unknown"));
+        }
+
+        @Test
+        void scriptsAndRepositoriesAreLive() {
+            var op = new JBangPrefetchOperation().scripts("a.java").scripts(new File("b.java"))
+                    .repositories(List.of(Repository.MAVEN_CENTRAL));
+            op.scripts().add(new File("c.java"));
+            assertEquals(List.of(new File("a.java"), new File("b.java"), new File("c.java")), op.scripts());
+            assertEquals(List.of(Repository.MAVEN_CENTRAL), op.repositories());
+        }
+    }
+}
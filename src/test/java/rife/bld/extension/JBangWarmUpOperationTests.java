@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import rife.bld.extension.testing.LoggingExtension;
+import rife.bld.operations.exceptions.ExitStatusException;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static rife.bld.extension.TestScripts.writeScript;
+
+@ExtendWith(LoggingExtension.class)
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "DataFlowIssue"})
+class JBangWarmUpOperationTests {
+
+    @Nested
+    @DisplayName("Execute Tests")
+    class ExecuteTests {
+
+        @Test
+        void executeEmptyWarmUp() throws Exception {
+            var op = new JBangWarmUpOperation();
+            assertDoesNotThrow(op::execute);
+            assertTrue(op.await());
+        }
+
+        @Test
+        void executeFailedWarmUp(@TempDir Path tempDir) throws Exception {
+            writeScript(tempDir, "broken", "does not compile");
+            var script = new JBangOperation().workDir(tempDir).jBangArgs("--quiet").script("broken.java");
+            var op = new JBangWarmUpOperation().operations(script);
+
+            op.execute();
+            assertFalse(op.await());
+            assertThrows(ExitStatusException.class, script::execute);
+        }
+
+        @Test
+        void executeInvalidWorkDir(@TempDir Path tempDir) {
+            var op = new JBangWarmUpOperation()
+                    .operations(new JBangOperation().workDir(tempDir.resolve("missing")).script("hello.java"));
+            assertThrows(ExitStatusException.class, op::execute);
+        }
+
+        @Test
+        void executeSameScriptOnce(@TempDir Path tempDir) throws Exception {
+            writeScript(tempDir, "twice", "System.out.println(\"twice\");");
+            var op = new JBangWarmUpOperation()
+                    .concurrency(2)
+                    .operations(new JBangOperation().workDir(tempDir).jBangArgs("--quiet").script("twice.java"),
+                            new JBangOperation().workDir(tempDir).jBangArgs("--quiet").script("twice.java"));
+
+            op.execute();
+            assertTrue(op.await());
+        }
+
+        @Test
+        void executeThenRun(@TempDir Path tempDir) throws Exception {
+            writeScript(tempDir, "first", "System.out.println(\"first\");");
+            writeScript(tempDir, "second", "System.out.println(\"second\");");
+            var output = new ArrayList<String>();
+            var first = new JBangOperation().workDir(tempDir).jBangArgs("--quiet").script("first.java")
+                    .inheritIO(false).outputConsumer(output::add);
+            var second = new JBangOperation().workDir(tempDir).jBangArgs("--quiet").script("second.java")
+                    .inheritIO(false).outputConsumer(output::add);
+
+            var op = new JBangWarmUpOperation().concurrency(1).operations(List.of(first, second));
+            op.execute();
+            first.execute();
+            second.execute();
+            assertTrue(op.await());
+            assertEquals(List.of("first", "second"), output);
+        }
+
+        @Test
+        void executeWithoutScript() throws Exception {
+            var op = new JBangWarmUpOperation().operations(new JBangOperation());
+            assertDoesNotThrow(op::execute);
+            assertTrue(op.await());
+        }
+    }
+
+    @Nested
+    @DisplayName("Options Tests")
+    class OptionsTests {
+
+        @Test
+        void concurrencyMustBePositive() {
+            var op = new JBangWarmUpOperation();
+            assertThrows(IllegalArgumentException.class, () -> op.concurrency(0));
+            assertEquals(3, op.concurrency(3).concurrency());
+        }
+
+        @Test
+        void operationsAreLive() {
+            var op = new JBangWarmUpOperation();
+            var script = new JBangOperation().script("foo.java");
+            op.operations().add(script);
+            assertEquals(List.of(script), op.operations());
+        }
+    }
+}
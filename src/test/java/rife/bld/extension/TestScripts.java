@@ -0,0 +1,40 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package rife.bld.extension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+final class TestScripts {
+
+    private TestScripts() {
+        // no-op
+    }
+
+    static Path writeScript(Path dir, String name, String body) throws IOException {
+        return writeScript(dir, name, "", body);
+    }
+
+    static Path writeScript(Path dir, String name, String directives, String body) throws IOException {
+        var script = dir.resolve(name + ".java");
+        Files.writeString(script, "///usr/bin/env jbang\n" + directives + "\nclass " + name + " {\n"
+                + "    public static void main(String[] args) throws Exception {\n"
+                + body + "\n    }\n}\n");
+        return script;
+    }
+}